@@ -0,0 +1,83 @@
+-- Insert time and index size of the users table with the old and new primary key layouts, at @rows users.
+-- Run against a scratch schema on the same MySQL version and configuration as production:
+--   mysql -u root -p scratch < db/benchmarks/user_id_layout.sql
+-- Both tables mirror users (primary key + unique username). The old layout gets random UUIDv4 strings in
+-- VARCHAR(255), the new one UUIDv7 in BINARY(16) with timestamps 1 ms apart, as steady signups would produce.
+-- Rows go in through 10,000-row INSERT ... SELECT statements, so the old layout pays for random page splits as the
+-- table grows. Raise @rows to the size you expect, and make sure innodb_buffer_pool_size is no larger than in production,
+-- because the gap widens once the primary key no longer fits in memory.
+
+SET @rows := 5000000;
+SET @chunk := 10000;
+SET SESSION cte_max_recursion_depth = 10000;
+
+DROP TABLE IF EXISTS bench_users_uuid_v4, bench_users_uuid_v7, bench_user_id_results;
+
+CREATE TABLE bench_users_uuid_v4 (
+    user_id  VARCHAR(255) NOT NULL PRIMARY KEY,
+    username VARCHAR(30)  NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE bench_users_uuid_v7 (
+    user_id  BINARY(16)   NOT NULL PRIMARY KEY,
+    username VARCHAR(30)  NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE bench_user_id_results (
+    layout       VARCHAR(20) NOT NULL PRIMARY KEY,
+    insert_ms    BIGINT,
+    data_mb      DECIMAL(10, 1),
+    index_mb     DECIMAL(10, 1)
+);
+
+DROP PROCEDURE IF EXISTS bench_fill_users;
+
+DELIMITER //
+CREATE PROCEDURE bench_fill_users(IN layout VARCHAR(20))
+BEGIN
+    DECLARE inserted BIGINT DEFAULT 0;
+    DECLARE started DATETIME(6) DEFAULT NOW(6);
+    DECLARE base_ms BIGINT DEFAULT FLOOR(UNIX_TIMESTAMP(NOW(3)) * 1000);
+
+    WHILE inserted < @rows DO
+        IF layout = 'uuid_v4' THEN
+            INSERT INTO bench_users_uuid_v4 (user_id, username, password)
+            WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < @chunk)
+            SELECT uuid_v4, CONCAT('user', inserted + n), REPEAT('x', 60) FROM (
+                SELECT n, LOWER(CONCAT_WS('-', SUBSTR(h, 1, 8), SUBSTR(h, 9, 4), CONCAT('4', SUBSTR(h, 14, 3)),
+                        CONCAT(ELT(1 + FLOOR(RAND() * 4), '8', '9', 'a', 'b'), SUBSTR(h, 18, 3)), SUBSTR(h, 21, 12)))
+                        AS uuid_v4
+                FROM (SELECT n, HEX(RANDOM_BYTES(16)) AS h FROM seq) random_hex
+            ) ids;
+        ELSE
+            INSERT INTO bench_users_uuid_v7 (user_id, username, password)
+            WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < @chunk)
+            SELECT UNHEX(CONCAT(LPAD(HEX(base_ms + inserted + n), 12, '0'), '7', SUBSTR(h, 1, 3),
+                       ELT(1 + FLOOR(RAND() * 4), '8', '9', 'A', 'B'), SUBSTR(h, 4, 15))),
+                   CONCAT('user', inserted + n), REPEAT('x', 60)
+            FROM (SELECT n, HEX(RANDOM_BYTES(9)) AS h FROM seq) random_hex;
+        END IF;
+        SET inserted = inserted + @chunk;
+    END WHILE;
+
+    INSERT INTO bench_user_id_results (layout, insert_ms)
+    VALUES (layout, TIMESTAMPDIFF(MICROSECOND, started, NOW(6)) DIV 1000);
+END //
+DELIMITER ;
+
+CALL bench_fill_users('uuid_v4');
+CALL bench_fill_users('uuid_v7');
+
+ANALYZE TABLE bench_users_uuid_v4, bench_users_uuid_v7; -- Refreshes the sizes in information_schema
+
+UPDATE bench_user_id_results r
+JOIN information_schema.tables t
+  ON t.table_schema = DATABASE() AND t.table_name = CONCAT('bench_users_', r.layout)
+SET r.data_mb = t.data_length / 1048576, r.index_mb = t.index_length / 1048576;
+
+-- data_mb is the clustered primary key (the rows), index_mb the secondary indexes, which each repeat the primary key
+SELECT * FROM bench_user_id_results ORDER BY layout;
+
+DROP PROCEDURE bench_fill_users;
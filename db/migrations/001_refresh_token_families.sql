@@ -0,0 +1,22 @@
+-- Refresh tokens move from one row per user to one row per session (token family).
+-- Run once before deploying; ddl-auto=update adds columns and indexes but never drops the old UNIQUE(user_id).
+-- Existing tokens are not in the "<familyId>.<secret>" format, so they are dropped and users log in again.
+
+DELETE FROM tokens;
+
+ALTER TABLE tokens ADD COLUMN family_id VARCHAR(22) NOT NULL AFTER token_id;
+CREATE UNIQUE INDEX uk_tokens_family_id ON tokens (family_id);
+CREATE INDEX idx_tokens_user_id ON tokens (user_id); -- Keeps the foreign key indexed once the unique index is gone
+
+-- Hibernate generated the name of the old unique key, so look it up
+SET @old_unique := (
+    SELECT s.index_name
+    FROM information_schema.statistics s
+    WHERE s.table_schema = DATABASE() AND s.table_name = 'tokens' AND s.column_name = 'user_id'
+      AND s.non_unique = 0 AND s.seq_in_index = 1
+    LIMIT 1
+);
+SET @drop_old_unique := IF(@old_unique IS NULL, 'DO 0', CONCAT('ALTER TABLE tokens DROP INDEX `', @old_unique, '`'));
+PREPARE drop_old_unique FROM @drop_old_unique;
+EXECUTE drop_old_unique;
+DEALLOCATE PREPARE drop_old_unique;
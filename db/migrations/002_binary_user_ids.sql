@@ -0,0 +1,57 @@
+-- users.user_id moves from VARCHAR(255) UUID strings to BINARY(16), the layout UuidBinaryConverter maps.
+-- Run once with every instance stopped (old instances write string ids), before deploying; needs MySQL 8.0 for UUID_TO_BIN.
+-- Existing ids keep their value, only the storage changes: a user's id in JWTs, Kafka events and other services is the same.
+-- New users get time-ordered UUIDv7 ids, which sort after the old random ones and append to the index.
+-- Each ALTER rebuilds its table; on large tables expect minutes, and InnoDB needs free space for a copy of the table.
+
+-- UUID_TO_BIN raises an error on a value that is not a UUID, so this stops the script before anything is changed
+SELECT COUNT(UUID_TO_BIN(user_id)) AS users_to_convert FROM users;
+
+-- Hibernate generated the foreign key names, so look them up
+SET @fk_users_roles := (
+    SELECT k.constraint_name FROM information_schema.key_column_usage k
+    WHERE k.table_schema = DATABASE() AND k.table_name = 'users_roles' AND k.column_name = 'user_id'
+      AND k.referenced_table_name = 'users'
+    LIMIT 1
+);
+SET @drop_fk := IF(@fk_users_roles IS NULL, 'DO 0', CONCAT('ALTER TABLE users_roles DROP FOREIGN KEY `', @fk_users_roles, '`'));
+PREPARE drop_fk FROM @drop_fk;
+EXECUTE drop_fk;
+DEALLOCATE PREPARE drop_fk;
+
+SET @fk_tokens := (
+    SELECT k.constraint_name FROM information_schema.key_column_usage k
+    WHERE k.table_schema = DATABASE() AND k.table_name = 'tokens' AND k.column_name = 'user_id'
+      AND k.referenced_table_name = 'users'
+    LIMIT 1
+);
+SET @drop_fk := IF(@fk_tokens IS NULL, 'DO 0', CONCAT('ALTER TABLE tokens DROP FOREIGN KEY `', @fk_tokens, '`'));
+PREPARE drop_fk FROM @drop_fk;
+EXECUTE drop_fk;
+DEALLOCATE PREPARE drop_fk;
+
+-- users: the clustered index is rebuilt in key order, which also undoes the page fragmentation of random inserts
+ALTER TABLE users ADD COLUMN user_id_bin BINARY(16) NULL FIRST;
+UPDATE users SET user_id_bin = UUID_TO_BIN(user_id);
+ALTER TABLE users DROP PRIMARY KEY, DROP COLUMN user_id;
+ALTER TABLE users CHANGE COLUMN user_id_bin user_id BINARY(16) NOT NULL, ADD PRIMARY KEY (user_id);
+
+ALTER TABLE users_roles ADD COLUMN user_id_bin BINARY(16) NULL FIRST;
+UPDATE users_roles SET user_id_bin = UUID_TO_BIN(user_id);
+ALTER TABLE users_roles DROP PRIMARY KEY, DROP COLUMN user_id;
+ALTER TABLE users_roles CHANGE COLUMN user_id_bin user_id BINARY(16) NOT NULL, ADD PRIMARY KEY (user_id, role_id);
+
+ALTER TABLE tokens ADD COLUMN user_id_bin BINARY(16) NULL AFTER family_id;
+UPDATE tokens SET user_id_bin = UUID_TO_BIN(user_id);
+ALTER TABLE tokens DROP COLUMN user_id; -- Also drops idx_tokens_user_id
+ALTER TABLE tokens CHANGE COLUMN user_id_bin user_id BINARY(16) NOT NULL, ADD INDEX idx_tokens_user_id (user_id);
+
+ALTER TABLE user_token_cutoffs ADD COLUMN user_id_bin BINARY(16) NULL FIRST;
+UPDATE user_token_cutoffs SET user_id_bin = UUID_TO_BIN(user_id);
+ALTER TABLE user_token_cutoffs DROP PRIMARY KEY, DROP COLUMN user_id;
+ALTER TABLE user_token_cutoffs CHANGE COLUMN user_id_bin user_id BINARY(16) NOT NULL, ADD PRIMARY KEY (user_id);
+
+ALTER TABLE users_roles ADD CONSTRAINT fk_users_roles_user FOREIGN KEY (user_id) REFERENCES users (user_id);
+ALTER TABLE tokens ADD CONSTRAINT fk_tokens_user FOREIGN KEY (user_id) REFERENCES users (user_id);
+
+-- user_event_outbox.aggregate_id stays VARCHAR: it is the Kafka message key, which consumers read as the string id
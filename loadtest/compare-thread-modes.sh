@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Compares platform-thread and virtual-thread request handling under high concurrency.
+# Requires: a built boot jar (./gradlew bootJar), reachable MySQL/Kafka as configured, and `k6` on the PATH.
+# The traffic is a real session flow (loadtest/refresh-flow.js): one signup per virtual user, then refresh-token
+# rotation in a loop, each request presenting the token the previous one returned.
+#
+# Usage: loadtest/compare-thread-modes.sh [concurrency] [duration]
+set -euo pipefail
+
+CONCURRENCY="${1:-1000}"
+DURATION="${2:-60s}"
+PORT="${PORT:-9090}"
+BASE_URL="http://localhost:${PORT}"
+JAR="$(ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1)"
+
+wait_for_health() {
+  for _ in $(seq 1 60); do
+    curl -sf "${BASE_URL}/actuator/health" > /dev/null && return 0
+    sleep 1
+  done
+  echo "Service did not become healthy" >&2
+  return 1
+}
+
+run_mode() {
+  local virtual="$1"
+  echo "=== spring.threads.virtual.enabled=${virtual} (c=${CONCURRENCY}, ${DURATION})"
+
+  java -Djdk.tracePinnedThreads=short -jar "${JAR}" \
+       --server.port="${PORT}" --spring.threads.virtual.enabled="${virtual}" > "loadtest/app-virtual-${virtual}.log" 2>&1 &
+  local pid=$!
+  trap "kill ${pid} 2>/dev/null || true" RETURN
+  wait_for_health
+
+  # Refresh is the DB-bound, BCrypt-free path, which is where thread-per-request blocking shows up
+  k6 run --quiet --summary-export "loadtest/result-virtual-${virtual}.json" \
+      -e BASE_URL="${BASE_URL}" -e CONCURRENCY="${CONCURRENCY}" -e DURATION="${DURATION}" -e RUN_ID="virtual-${virtual}-$$" \
+      loadtest/refresh-flow.js | tee "loadtest/result-virtual-${virtual}.txt"
+
+  grep -c "Thread\[" "loadtest/app-virtual-${virtual}.log" | xargs echo "pinned-thread stack traces:" || true
+}
+
+run_mode false
+run_mode true
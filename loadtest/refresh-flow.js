@@ -0,0 +1,40 @@
+// k6 scenario for compare-thread-modes.sh: every virtual user signs up once, then keeps exchanging its refresh
+// token for a new one. Refresh tokens are single-use, so each iteration sends the token the previous one returned;
+// replaying a spent token would revoke the family and turn the run into a stream of failures.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:9090';
+const RUN_ID = __ENV.RUN_ID || Date.now().toString(36); // Fresh usernames per run
+const JSON_HEADERS = { headers: { 'Content-Type': 'application/json' } };
+
+export const options = {
+  vus: Number(__ENV.CONCURRENCY || 1000),
+  duration: __ENV.DURATION || '60s',
+  thresholds: { 'checks{step:refresh}': ['rate>0.99'] },
+};
+
+let refreshToken = null; // Per virtual user: module state is not shared between VUs
+
+function signUp() {
+  const body = JSON.stringify({ username: `lt_${RUN_ID}_${__VU}`, password: 'Loadtest-Pass1' });
+  for (let attempt = 0; attempt < 30; attempt++) {
+    const response = http.post(`${BASE_URL}/auth/v1/signup`, body, Object.assign({ tags: { step: 'signup' } }, JSON_HEADERS));
+    if (response.status === 200) return response.json('token');
+    if (response.status !== 503) break; // 503: password hashing saturated by the signup burst, back off and retry
+    sleep(Number(response.headers['Retry-After'] || 1));
+  }
+  return null;
+}
+
+export default function () {
+  if (refreshToken === null) {
+    refreshToken = signUp();
+    if (refreshToken === null) return; // Counted by k6 as a failed signup request, the VU retries next iteration
+  }
+
+  const response = http.post(`${BASE_URL}/auth/v1/refreshToken`, JSON.stringify({ token: refreshToken }),
+      Object.assign({ tags: { step: 'refresh' } }, JSON_HEADERS));
+  const rotated = check(response, { 'refresh rotated': (r) => r.status === 200 }, { step: 'refresh' });
+  refreshToken = rotated ? response.json('token') : null; // A failed exchange leaves no usable token: sign up again
+}
@@ -0,0 +1,49 @@
+package com.eta.authservice.benchmark;
+
+import com.eta.authservice.entities.UserInfo;
+import com.eta.authservice.entities.UserRole;
+import com.eta.authservice.service.AuthorityRegistry;
+import com.eta.authservice.service.CustomUserDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomUserDetailsBenchmark {
+
+    private UserInfo userInfo;
+    private AuthorityRegistry authorityRegistry;
+
+    @Setup
+    public void setUp() {
+        userInfo = UserInfo.builder()
+                .userId("5b0c8f0e-3f4a-4d7e-9b8a-0d6a1c2e3f40")
+                .username("jane.doe")
+                .password("{bcrypt}$2a$12$abcdefghijklmnopqrstuu1234567890abcdefghijklmnopqrstu")
+                .roles(Set.of(new UserRole(1L, "ROLE_USER"), new UserRole(2L, "ROLE_PREMIUM")))
+                .build();
+        authorityRegistry = new AuthorityRegistry(new InMemoryUserRoleRepository("ROLE_USER", "ROLE_PREMIUM", "ROLE_ADMIN"));
+        authorityRegistry.refresh(); // As on ApplicationReadyEvent
+    }
+
+    @Benchmark
+    public CustomUserDetails construct() {
+        return new CustomUserDetails(userInfo.getUserId(), userInfo.getUsername(), userInfo.getPassword(),
+                authorityRegistry.forRoles(userInfo.getRoles()));
+    }
+}
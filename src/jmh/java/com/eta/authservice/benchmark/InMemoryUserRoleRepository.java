@@ -0,0 +1,95 @@
+package com.eta.authservice.benchmark;
+
+import com.eta.authservice.entities.UserRole;
+import com.eta.authservice.repository.UserRoleRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Roles table kept in a map, so benchmarks exercise AuthorityRegistry.refresh() the way the application does
+class InMemoryUserRoleRepository implements UserRoleRepository {
+
+    private final Map<Long, UserRole> roles = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    InMemoryUserRoleRepository(String... names) {
+        for (String name : names) {
+            save(new UserRole(null, name));
+        }
+    }
+
+    @Override
+    public List<String> findAllNames() {
+        return roles.values().stream().map(UserRole::getName).toList();
+    }
+
+    @Override
+    public <S extends UserRole> S save(S role) {
+        if (role.getRoleId() == null) role.setRoleId(nextId.getAndIncrement());
+        roles.put(role.getRoleId(), role);
+        return role;
+    }
+
+    @Override
+    public <S extends UserRole> Iterable<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(role -> saved.add(save(role)));
+        return saved;
+    }
+
+    @Override
+    public Optional<UserRole> findById(Long id) {
+        return Optional.ofNullable(roles.get(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return roles.containsKey(id);
+    }
+
+    @Override
+    public Iterable<UserRole> findAll() {
+        return List.copyOf(roles.values());
+    }
+
+    @Override
+    public Iterable<UserRole> findAllById(Iterable<Long> ids) {
+        List<UserRole> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return roles.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        roles.remove(id);
+    }
+
+    @Override
+    public void delete(UserRole role) {
+        if (role.getRoleId() != null) roles.remove(role.getRoleId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(roles::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends UserRole> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        roles.clear();
+    }
+}
@@ -0,0 +1,108 @@
+package com.eta.authservice.benchmark;
+
+import com.eta.authservice.entities.UserInfo;
+import com.eta.authservice.entities.UserRole;
+import com.eta.authservice.service.AuthorityRegistry;
+import com.eta.authservice.service.CustomUserDetails;
+import com.eta.authservice.service.JwtKeyRing;
+import com.eta.authservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Clock;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret-that-is-long-enough-for-hs256";
+
+    @Param({"HS256", "ES256"})
+    public String algorithm;
+
+    @Param({"0", "10000"})
+    public long claimsCacheSize; // 0 evicts immediately, i.e. every call parses and verifies
+
+    private JwtKeyRing keyRing;
+    private JwtService jwtService;
+    private CustomUserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        keyRing = new JwtKeyRing(algorithm, SECRET, "", "", "", new String[0], false, true); // Ephemeral key for ES256
+        AuthorityRegistry authorityRegistry = new AuthorityRegistry(new InMemoryUserRoleRepository("ROLE_USER", "ROLE_PREMIUM", "ROLE_ADMIN"));
+        authorityRegistry.refresh(); // As on ApplicationReadyEvent
+        jwtService = new JwtService(keyRing, authorityRegistry, Clock.systemUTC(), TimeUnit.HOURS.toMillis(1), claimsCacheSize, new SimpleMeterRegistry());
+
+        UserInfo userInfo = UserInfo.builder()
+                .userId("5b0c8f0e-3f4a-4d7e-9b8a-0d6a1c2e3f40")
+                .username("jane.doe")
+                .password("{bcrypt}$2a$12$abcdefghijklmnopqrstuu1234567890abcdefghijklmnopqrstu")
+                .roles(Set.of(new UserRole(1L, "ROLE_USER"), new UserRole(2L, "ROLE_PREMIUM")))
+                .build();
+        userDetails = new CustomUserDetails(userInfo.getUserId(), userInfo.getUsername(), userInfo.getPassword(),
+                authorityRegistry.forRoles(userInfo.getRoles()));
+        token = jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetails);
+    }
+
+    // Reference for gc.alloc.rate.norm: how tokens were built before the pre-encoded template
+    @Benchmark
+    public String generateTokenWithJjwtBuilder() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtService.ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        claims.put(JwtService.USER_ID_CLAIM, userDetails.getUserId());
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.getActiveKeyId())
+                .setClaims(claims)
+                .setSubject(userDetails.getUsername())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(keyRing.getSigningKey(), keyRing.getAlgorithm())
+                .compact();
+    }
+
+    // Reference for the prebuilt parser: verification with a parser built per call, as before
+    @Benchmark
+    public Claims parseWithFreshParser() {
+        return Jwts.parserBuilder().setSigningKeyResolver(keyRing).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtService.validateToken(token, userDetails);
+    }
+}
@@ -0,0 +1,72 @@
+package com.eta.authservice.benchmark;
+
+import com.eta.authservice.entities.UuidBinaryConverter;
+import com.eta.authservice.utils.UserIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Cost of producing a user id and of the String <-> BINARY(16) mapping done on every bind and read.
+// Insert throughput and index size are measured against MySQL with db/benchmarks/user_id_layout.sql.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserIdBenchmark {
+
+    private final UuidBinaryConverter converter = new UuidBinaryConverter();
+
+    private String userId;
+    private byte[] storedUserId;
+
+    @Setup
+    public void setUp() {
+        userId = UserIdGenerator.newUserId();
+        storedUserId = converter.convertToDatabaseColumn(userId);
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString(); // Previous id source, one shared SecureRandom
+    }
+
+    @Benchmark
+    public String timeOrderedId() {
+        return UserIdGenerator.newUserId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String randomUuidContended() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timeOrderedIdContended() {
+        return UserIdGenerator.newUserId();
+    }
+
+    @Benchmark
+    public byte[] toDatabaseColumn() {
+        return converter.convertToDatabaseColumn(userId);
+    }
+
+    @Benchmark
+    public String toEntityAttribute() {
+        return converter.convertToEntityAttribute(storedUserId);
+    }
+}
@@ -0,0 +1,49 @@
+package com.eta.authservice.benchmark;
+
+import com.eta.authservice.model.UserInfoDto;
+import com.eta.authservice.serializer.UserInfoDtoSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserInfoDtoSerializerBenchmark {
+
+    private static final String TOPIC = "userInfoDto_json";
+
+    private UserInfoDtoSerializer serializer;
+    private UserInfoDto userInfoDto;
+
+    @Setup
+    public void setUp() {
+        serializer = new UserInfoDtoSerializer();
+        serializer.configure(Map.of(), false);
+
+        userInfoDto = new UserInfoDto();
+        userInfoDto.setUserId("5b0c8f0e-3f4a-4d7e-9b8a-0d6a1c2e3f40");
+        userInfoDto.setUsername("jane.doe");
+        userInfoDto.setPassword("{bcrypt}$2a$12$abcdefghijklmnopqrstuu1234567890abcdefghijklmnopqrstu");
+        userInfoDto.setRoles(new HashSet<>());
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, userInfoDto);
+    }
+}
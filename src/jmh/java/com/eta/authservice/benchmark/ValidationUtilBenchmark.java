@@ -0,0 +1,63 @@
+package com.eta.authservice.benchmark;
+
+import com.eta.authservice.model.UserInfoDto;
+import com.eta.authservice.utils.ValidationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationUtilBenchmark {
+
+    private UserInfoDto validUser;
+    private UserInfoDto validEmailUser;
+    private UserInfoDto invalidUser;
+
+    @Setup
+    public void setUp() {
+        validUser = user("jane.doe", "Str0ng#Passw0rd");
+        validEmailUser = user("jane.doe@example.com", "Str0ng#Passw0rd");
+        invalidUser = user("admin", "weakpassword"); // Typical signup-spam shape: rejected by several rules
+    }
+
+    @Benchmark
+    public void validUsername() {
+        ValidationUtil.validateUserAttributes(validUser);
+    }
+
+    @Benchmark
+    public void validEmailUsername() {
+        ValidationUtil.validateUserAttributes(validEmailUser);
+    }
+
+    @Benchmark
+    public void invalidUser(Blackhole blackhole) {
+        try {
+            ValidationUtil.validateUserAttributes(invalidUser);
+        } catch (ValidationUtil.UserValidationException exception) {
+            blackhole.consume(exception);
+        }
+    }
+
+    private static UserInfoDto user(String username, String password) {
+        UserInfoDto userInfoDto = new UserInfoDto();
+        userInfoDto.setUsername(username);
+        userInfoDto.setPassword(password);
+        return userInfoDto;
+    }
+}
@@ -2,12 +2,22 @@ package com.eta.authservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
 
 @SpringBootApplication
+@EnableScheduling // Background jobs such as the outbox relay
 public class ExpenseTrackerAppApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(ExpenseTrackerAppApplication.class, args);
 	}
 
+	@Bean
+	public Clock clock() {
+		return Clock.systemUTC(); // Injected where time decides validity, so it can be fixed in tests and benchmarks
+	}
+
 }
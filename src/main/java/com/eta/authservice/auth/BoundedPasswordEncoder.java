@@ -0,0 +1,156 @@
+package com.eta.authservice.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs the expensive encode/matches calls of a delegate encoder on a fixed, core-sized pool with a bounded queue.
+// Request threads still wait for the result, but CPU-bound hashing can never occupy more than `threads` cores,
+// and once the queue is full callers are rejected immediately instead of piling up behind each other.
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer; // Time spent queued before a worker picked the task up
+    private final Timer encodeTimer; // Time spent hashing a new password on the worker
+    private final Timer matchTimer; // Time spent verifying a password on the worker (the login cost)
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), // Bounded backlog is the backpressure point
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy()); // Saturation surfaces as RejectedExecutionException
+
+        this.waitTimer = Timer.builder("auth.password.hashing.wait")
+                .description("Time password hashing tasks spend queued")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.password.hashing.duration")
+                .description("Time spent computing password hashes")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("auth.password.hashing.duration")
+                .description("Time spent computing password hashes")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.hashing.rejected")
+                .description("Hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (executor.getQueue().remainingCapacity() == 0) return false; // Saturated: defer the rehash to a later login
+        return delegate.upgradeEncoding(encodedPassword); // Only inspects the stored hash, cheap enough to run inline
+    }
+
+    // Bulk hashing in parallel across the workers. At most `threads` tasks are queued at a time, so interactive
+    // logins and signups keep getting queue slots while an import runs. If a submit is rejected or a hash fails,
+    // the rest of the window is cancelled rather than left to burn workers on a batch nobody will read.
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int window = executor.getMaximumPoolSize();
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        List<Future<String>> inFlight = new ArrayList<>(window);
+        try {
+            for (int from = 0; from < rawPasswords.size(); from += window) {
+                int to = Math.min(from + window, rawPasswords.size());
+                for (CharSequence rawPassword : rawPasswords.subList(from, to)) {
+                    inFlight.add(submitAsync(() -> delegate.encode(rawPassword), encodeTimer));
+                }
+                for (Future<String> future : inFlight) {
+                    encoded.add(await(future));
+                }
+                inFlight.clear();
+            }
+        } catch (RuntimeException exception) {
+            inFlight.forEach(future -> future.cancel(true)); // No-op for the ones already done
+            executor.purge(); // Frees the queue slots of cancelled tasks for interactive callers
+            throw exception;
+        }
+        return encoded;
+    }
+
+    private <T> T submit(Callable<T> task, Timer hashTimer) {
+        return await(submitAsync(task, hashTimer));
+    }
+
+    private <T> Future<T> submitAsync(Callable<T> task, Timer hashTimer) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException("Password hashing capacity exhausted, retry later");
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException interruptedException) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", interruptedException);
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException; // Preserve delegate's exception type
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    // True when the throwable or any of its causes is a hashing rejection (Spring Security may wrap it)
+    public static boolean isCapacityExceeded(Throwable throwable) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current instanceof HashingCapacityExceededException) return true;
+        }
+        return false;
+    }
+
+    public static class HashingCapacityExceededException extends RuntimeException {
+        public HashingCapacityExceededException(String message) {
+            super(message); // Signals callers to answer 503 with Retry-After
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.eta.authservice.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keyed token buckets on the generic cell rate algorithm, shared by the login and introspection limiters.
+// Each bucket is a single AtomicLong storing the time it will be full again, so refill is continuous (old requests
+// decay smoothly instead of resetting at window edges) and a request is one CAS, with no locks and no timer.
+final class GcraBuckets {
+
+    private final Cache<String, AtomicLong> buckets; // Key -> theoretical arrival time in nanos
+
+    GcraBuckets(long maxTrackedKeys) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys) // Bounded even when attackers rotate keys
+                .expireAfterAccess(Duration.ofMinutes(10)) // Idle buckets are full again long before this
+                .build();
+    }
+
+    // Takes cost cells from the key's bucket. Returns 0 when they were taken, otherwise the nanoseconds until they
+    // would be; tolerance is interval * (burst - 1), and a cost above the burst can never be granted.
+    long acquire(String key, long now, long intervalNanos, long toleranceNanos, int cost) {
+        long increment = intervalNanos * cost;
+        AtomicLong arrival = buckets.get(key, ignored -> new AtomicLong(now));
+        while (true) {
+            long theoreticalArrival = arrival.get();
+            long base = Math.max(theoreticalArrival, now);
+            long wait = base + increment - intervalNanos - toleranceNanos - now;
+            if (wait > 0) return wait; // Not enough cells left
+            if (arrival.compareAndSet(theoreticalArrival, base + increment)) return 0;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.eta.authservice.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+// Per-caller budget for token introspection, counted in tokens rather than requests, so one batch of 100 costs the
+// same as 100 single-token calls. Checked before any token is parsed.
+@Component
+public class IntrospectionRateLimiter {
+
+    private final GcraBuckets buckets;
+    private final Clock clock;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int burst;
+
+    public IntrospectionRateLimiter(Clock clock,
+                                    @Value("${auth.introspection.rate-limit.tokens-per-minute:6000}") int tokensPerMinute,
+                                    @Value("${auth.introspection.rate-limit.burst:500}") int burst,
+                                    @Value("${auth.introspection.rate-limit.max-tracked-keys:10000}") long maxTrackedKeys) {
+        this.clock = clock;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / tokensPerMinute;
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.burst = burst;
+        this.buckets = new GcraBuckets(maxTrackedKeys);
+    }
+
+    // Returns 0 when the caller may introspect tokenCount tokens now, otherwise the nanoseconds until it may
+    public long tryAcquire(String caller, int tokenCount) {
+        int cost = Math.min(tokenCount, burst); // A batch larger than the burst could otherwise never pass
+        return buckets.acquire("caller:" + caller, TimeUnit.MILLISECONDS.toNanos(clock.millis()), intervalNanos, toleranceNanos, cost);
+    }
+}
@@ -1,12 +1,16 @@
 package com.eta.authservice.auth;
 
 import com.eta.authservice.service.JwtService;
+import com.eta.authservice.service.TokenRevocationService;
 import com.eta.authservice.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,32 +19,67 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final Timer anonymousTimer; // No bearer token
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer; // Invalid, expired, revoked or mismatched token
+
+    public JwtAuthFilter(JwtService jwtService, UserDetailsServiceImpl userDetailsService,
+                         TokenRevocationService tokenRevocationService, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.anonymousTimer = filterTimer(meterRegistry, "anonymous");
+        this.authenticatedTimer = filterTimer(meterRegistry, "authenticated");
+        this.rejectedTimer = filterTimer(meterRegistry, "rejected");
+    }
+
+    // When enabled, tokens carrying embedded roles authenticate from their claims alone (no DB lookup)
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean statelessAuthEnabled;
+
+    // Tokens older than this are re-checked against the DB even in stateless mode, bounding how long a stale role set is trusted
+    @Value("${jwt.stateless.max-token-age-ms:900000}")
+    private long statelessMaxTokenAgeMs;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long startedAt = System.nanoTime();
+        Timer outcome = authenticate(request);
+        outcome.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS); // This filter's own work, not the rest of the chain
+
+        filterChain.doFilter(request, response); // Continue filter chain
+    }
 
+    private Timer authenticate(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization"); // Extract Authorization header from request
-        String token = null;
+        Claims claims = null;
         String username = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")){
-            token = authHeader.substring(7); // Remove "Bearer " prefix to get actual JWT
-            username = jwtService.extractUsername(token); // Extract username from token
+            String token = authHeader.substring(7); // Remove "Bearer " prefix to get actual JWT
+            claims = jwtService.extractAllClaims(token); // Verify once, reused for every check below
+            if (claims != null && tokenRevocationService.isRevoked(claims)) claims = null; // Logged out or revoked
+            username = claims != null ? claims.getSubject() : null; // Extract username from token
         }
 
+        if (claims == null && (authHeader == null || !authHeader.startsWith("Bearer "))) return anonymousTimer;
+
         // Authenticate user only if username exists and no authentication is already set
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null){
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username); // Load user details from DB
+            UserDetails userDetails = canAuthenticateStatelessly(claims)
+                    ? jwtService.extractUserDetails(claims) // Principal built from verified claims
+                    : userDetailsService.loadUserByUsername(username); // Load user details from DB
 
-            if (jwtService.validateToken(token, userDetails)){
+            if (jwtService.validateToken(claims, userDetails)){
                 // Create authentication token with user authorities
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -48,9 +87,22 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request)); // Attach request details
 
                 SecurityContextHolder.getContext().setAuthentication(authToken); // Set authenticated user in security context
+                return authenticatedTimer;
             }
         }
+        return rejectedTimer;
+    }
 
-        filterChain.doFilter(request, response); // Continue filter chain
+    private static Timer filterTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.filter.jwt")
+                .description("Time JwtAuthFilter spends authenticating a request")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private boolean canAuthenticateStatelessly(Claims claims){
+        return statelessAuthEnabled
+                && jwtService.hasEmbeddedAuthorities(claims) // Legacy tokens without roles fall back to the DB
+                && jwtService.isIssuedWithin(claims, statelessMaxTokenAgeMs);
     }
 }
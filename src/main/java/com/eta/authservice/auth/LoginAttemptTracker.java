@@ -0,0 +1,70 @@
+package com.eta.authservice.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+// Progressive lockout after consecutive failed logins: once the threshold is reached every further failure doubles
+// the lock, up to a cap. Tracked per username whether or not the account exists, so lockouts reveal nothing.
+// State is in-process; with several instances each one locks independently, which still bounds guesses per instance.
+@Component
+public class LoginAttemptTracker {
+
+    private record Failures(int count, Instant lockedUntil) {}
+
+    private final Cache<String, Failures> failures;
+    private final Clock clock;
+    private final int threshold;
+    private final Duration baseLock;
+    private final Duration maxLock;
+
+    public LoginAttemptTracker(Clock clock,
+                               @Value("${auth.login.lockout.threshold:5}") int threshold,
+                               @Value("${auth.login.lockout.base-duration:30s}") Duration baseLock,
+                               @Value("${auth.login.lockout.max-duration:15m}") Duration maxLock,
+                               @Value("${auth.login.rate-limit.max-tracked-keys:200000}") long maxTrackedKeys) {
+        this.clock = clock;
+        this.threshold = threshold;
+        this.baseLock = baseLock;
+        this.maxLock = maxLock;
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterWrite(maxLock.multipliedBy(2)) // Failures older than this no longer count
+                .build();
+    }
+
+    public boolean isLocked(String username) {
+        return remainingLock(username).compareTo(Duration.ZERO) > 0;
+    }
+
+    public Duration remainingLock(String username) {
+        Failures current = failures.getIfPresent(key(username));
+        if (current == null || current.lockedUntil() == null) return Duration.ZERO;
+        Duration remaining = Duration.between(clock.instant(), current.lockedUntil());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    public void recordFailure(String username) {
+        failures.asMap().compute(key(username), (key, current) -> {
+            int count = current == null ? 1 : current.count() + 1;
+            if (count < threshold) return new Failures(count, null);
+            Duration lock = baseLock.multipliedBy(1L << Math.min(count - threshold, 20)); // 1x, 2x, 4x ...
+            if (lock.compareTo(maxLock) > 0) lock = maxLock;
+            return new Failures(count, clock.instant().plus(lock));
+        });
+    }
+
+    public void recordSuccess(String username) {
+        failures.invalidate(key(username));
+    }
+
+    private static String key(String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+}
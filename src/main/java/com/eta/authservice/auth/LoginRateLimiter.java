@@ -0,0 +1,44 @@
+package com.eta.authservice.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Per-username and per-client-IP token buckets for login attempts, checked before any user lookup or password hashing.
+// See GcraBuckets for the algorithm: refill is continuous and an attempt is one CAS, with no locks and no timer.
+@Component
+public class LoginRateLimiter {
+
+    private final GcraBuckets buckets;
+    private final Clock clock;
+    private final long usernameIntervalNanos;
+    private final long usernameToleranceNanos;
+    private final long ipIntervalNanos;
+    private final long ipToleranceNanos;
+
+    public LoginRateLimiter(Clock clock,
+                            @Value("${auth.login.rate-limit.username.per-minute:10}") int usernamePerMinute,
+                            @Value("${auth.login.rate-limit.username.burst:5}") int usernameBurst,
+                            @Value("${auth.login.rate-limit.ip.per-minute:60}") int ipPerMinute,
+                            @Value("${auth.login.rate-limit.ip.burst:20}") int ipBurst,
+                            @Value("${auth.login.rate-limit.max-tracked-keys:200000}") long maxTrackedKeys) {
+        this.clock = clock;
+        this.usernameIntervalNanos = TimeUnit.MINUTES.toNanos(1) / usernamePerMinute;
+        this.usernameToleranceNanos = usernameIntervalNanos * (usernameBurst - 1);
+        this.ipIntervalNanos = TimeUnit.MINUTES.toNanos(1) / ipPerMinute;
+        this.ipToleranceNanos = ipIntervalNanos * (ipBurst - 1);
+        this.buckets = new GcraBuckets(maxTrackedKeys); // Bounded even when attackers rotate usernames or addresses
+    }
+
+    // Returns 0 when the attempt may proceed, otherwise the nanoseconds until it would be allowed
+    public long tryAcquire(String username, String clientIp) {
+        long now = TimeUnit.MILLISECONDS.toNanos(clock.millis()); // Millisecond steps are fine at per-minute rates
+        long ipWait = buckets.acquire("ip:" + clientIp, now, ipIntervalNanos, ipToleranceNanos, 1);
+        if (ipWait > 0) return ipWait;
+        String key = "user:" + (username == null ? "" : username.toLowerCase(Locale.ROOT)); // Same normalisation as the user cache
+        return buckets.acquire(key, now, usernameIntervalNanos, usernameToleranceNanos, 1);
+    }
+}
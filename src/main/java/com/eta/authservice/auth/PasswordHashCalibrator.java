@@ -0,0 +1,56 @@
+package com.eta.authservice.auth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+// Picks a hashing cost that lands close to a target time per hash on the hardware the service is running on.
+// The configured cost is always treated as a floor: calibration may only make hashing stronger, never weaker.
+public final class PasswordHashCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "Calibration#Sample1"; // Representative length, never stored
+    private static final int SAMPLES = 3; // Median of a few runs smooths out JIT and scheduling noise
+    private static final int BCRYPT_MAX_STRENGTH = 16; // Beyond this a single login takes seconds
+
+    private PasswordHashCalibrator() {} // Prevent instantiation
+
+    // BCrypt cost is exponential: each +1 doubles the work
+    public static int calibrateBcryptStrength(IntFunction<PasswordEncoder> encoderForStrength, int minStrength, long targetMs) {
+        double measuredMs = measure(encoderForStrength.apply(minStrength));
+        int strength = minStrength;
+        while (strength < BCRYPT_MAX_STRENGTH && measuredMs * 2 <= targetMs) {
+            strength++;
+            measuredMs *= 2;
+        }
+        log.info("Calibrated bcrypt strength {} (~{} ms/hash, target {} ms)", strength, Math.round(measuredMs), targetMs);
+        return strength;
+    }
+
+    // Linear costs (Argon2 passes, PBKDF2 iterations): scale the floor by target / measured
+    public static int calibrateLinearCost(IntFunction<PasswordEncoder> encoderForCost, int minCost, long targetMs, String name) {
+        double measuredMs = measure(encoderForCost.apply(minCost));
+        int cost = minCost;
+        if (measuredMs > 0 && measuredMs < targetMs) {
+            cost = (int) Math.max(minCost, Math.floor(minCost * (targetMs / measuredMs)));
+        }
+        log.info("Calibrated {} cost {} (~{} ms/hash at cost {}, target {} ms)", name, cost, Math.round(measuredMs), minCost, targetMs);
+        return cost;
+    }
+
+    private static double measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD); // Warm-up
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2] / 1_000_000.0; // Median in milliseconds
+    }
+}
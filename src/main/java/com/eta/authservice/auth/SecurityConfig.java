@@ -35,6 +35,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(); // DAO-based authentication provider
         provider.setUserDetailsService(userDetailsServiceImpl); // Set custom UserDetailsService
         provider.setPasswordEncoder(passwordEncoder); // Set password encoder for credential validation
+        provider.setUserDetailsPasswordService(userDetailsServiceImpl); // Rehash outdated passwords on successful login
         return provider;
     }
 
@@ -44,7 +45,8 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable) // Disable CSRF for stateless REST API
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // No HTTP session, JWT based auth
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/v1/login", "/auth/v1/signup", "/auth/v1/refreshToken").permitAll() // Public endpoints
+                        .requestMatchers("/auth/v1/login", "/auth/v1/signup", "/auth/v1/refreshToken",
+                                "/.well-known/jwks.json").permitAll() // Public endpoints
                         .anyRequest().authenticated()) // Secure all other endpoints
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class) // Add JWT filter before default auth filter
                 .authenticationProvider(authenticationProvider()) // Register custom authentication provider
@@ -1,15 +1,79 @@
 package com.eta.authservice.auth;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 @Configuration
 public class UserConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(UserConfig.class);
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+    private static final String PBKDF2 = "pbkdf2";
+
+    // Argon2id parameters that are not tuned by calibration
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+    private static final int PBKDF2_SALT_LENGTH = 16;
+
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder(12); // BCrypt with strength 12 for secure password hashing
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.algorithm:bcrypt}") String algorithm,
+                                           @Value("${auth.password.bcrypt.strength:12}") int bcryptStrength,
+                                           @Value("${auth.password.argon2.memory-kb:16384}") int argon2MemoryKb,
+                                           @Value("${auth.password.argon2.iterations:2}") int argon2Iterations,
+                                           @Value("${auth.password.pbkdf2.iterations:310000}") int pbkdf2Iterations,
+                                           @Value("${auth.password.calibration.enabled:false}") boolean calibrationEnabled,
+                                           @Value("${auth.password.calibration.target-ms:250}") long calibrationTargetMs,
+                                           @Value("${auth.password.hashing.threads:0}") int threads,
+                                           @Value("${auth.password.hashing.queue-capacity:64}") int queueCapacity,
+                                           MeterRegistry meterRegistry){
+        String idForEncode = algorithm.toLowerCase(Locale.ROOT);
+
+        if (calibrationEnabled) {
+            switch (idForEncode) {
+                case BCRYPT -> bcryptStrength = PasswordHashCalibrator.calibrateBcryptStrength(
+                        BCryptPasswordEncoder::new, bcryptStrength, calibrationTargetMs);
+                case ARGON2 -> argon2Iterations = PasswordHashCalibrator.calibrateLinearCost(
+                        iterations -> argon2(argon2MemoryKb, iterations), argon2Iterations, calibrationTargetMs, ARGON2);
+                // PBKDF2 hashes do not record their iteration count, so it must stay fixed across restarts
+                default -> log.warn("Password cost calibration is not supported for '{}', using configured cost", idForEncode);
+            }
+        }
+
+        // Every supported encoder stays registered so hashes produced under an earlier setting still verify
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put(ARGON2, argon2(argon2MemoryKb, argon2Iterations));
+        encoders.put(PBKDF2, new Pbkdf2PasswordEncoder("", PBKDF2_SALT_LENGTH, pbkdf2Iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+
+        if (!encoders.containsKey(idForEncode)) {
+            throw new IllegalStateException("Unsupported auth.password.algorithm: " + algorithm);
+        }
+
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(idForEncode, encoders); // Stores {id}hash
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder()); // Legacy hashes without an {id} prefix
+
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors(); // Default to one worker per core
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder, workers, queueCapacity, meterRegistry); // Hash off the request threads with bounded backlog
+    }
+
+    private static PasswordEncoder argon2(int memoryKb, int iterations){
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM, memoryKb, iterations);
     }
 }
@@ -1,13 +1,16 @@
 package com.eta.authservice.controller;
 
-import com.eta.authservice.entities.RefreshToken;
+import com.eta.authservice.auth.BoundedPasswordEncoder;
 import com.eta.authservice.model.UserInfoDto;
 import com.eta.authservice.response.JwtResponseDto;
+import com.eta.authservice.service.CustomUserDetails;
 import com.eta.authservice.service.JwtService;
 import com.eta.authservice.service.RefreshTokenService;
 import com.eta.authservice.service.UserDetailsServiceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -23,6 +26,9 @@ public class AuthController {
     private RefreshTokenService refreshTokenService;
     private UserDetailsServiceImpl userDetailsServiceImpl;
 
+    @Value("${auth.password.hashing.retry-after-seconds:1}")
+    private String hashingRetryAfterSeconds; // Retry-After sent when password hashing is saturated
+
     // Constructor injection
     public AuthController(JwtService jwtService, RefreshTokenService refreshTokenService,
                           UserDetailsServiceImpl userDetailsServiceImpl) {
@@ -34,25 +40,31 @@ public class AuthController {
     @PostMapping("auth/v1/signup")
     public ResponseEntity<?> signUp(@RequestBody UserInfoDto userInfoDto){
         try{
-            Boolean isSignedUp = userDetailsServiceImpl.signUp(userInfoDto); // Attempt to register new user
+            CustomUserDetails signedUpUser = userDetailsServiceImpl.signUp(userInfoDto); // Attempt to register new user
 
-            if (Boolean.FALSE.equals(isSignedUp)){
+            if (signedUpUser == null){
                 log.warn("Signup failed: User {} already exists", userInfoDto.getUsername());
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("User already exists");
             }
 
-            RefreshToken refreshToken = refreshTokenService.createRefreshToken(userInfoDto.getUsername()); // Generate refresh token
-            String jwtToken = jwtService.generateToken(userInfoDto.getUsername()); // Generate access token
+            String refreshToken = refreshTokenService.createRefreshToken(signedUpUser.getUserId(), signedUpUser.getUsername()); // Generate refresh token
+            String jwtToken = jwtService.generateToken(signedUpUser); // Generate access token with embedded roles, no reload of the row just written
 
             JwtResponseDto jwtResponseDto = JwtResponseDto.builder()
                     .accessToken(jwtToken)
-                    .token(refreshToken.getToken())
+                    .token(refreshToken)
                     .build(); // Build JWT response payload
 
             log.info("User {} signed up successfully", userInfoDto.getUsername());
 
             return ResponseEntity.ok(jwtResponseDto); // Return tokens to client
         } catch (Exception exception){
+            if (BoundedPasswordEncoder.isCapacityExceeded(exception)){
+                log.warn("Password hashing saturated, rejecting signup for {}", userInfoDto.getUsername());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, hashingRetryAfterSeconds)
+                        .body("Service busy, please retry"); // Shed load fast instead of queueing behind BCrypt
+            }
             log.error("Exception during user signup", exception);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Internal server error during signup"); // Handle unexpected errors
@@ -0,0 +1,115 @@
+package com.eta.authservice.controller;
+
+import com.eta.authservice.model.UserInfoDto;
+import com.eta.authservice.response.BulkSignUpResultDto;
+import com.eta.authservice.service.BulkSignUpService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Bulk signup for imports and migrations. The body is read as a stream (a JSON array, newline-delimited JSON, or CSV
+// with a header row of snake_case field names) and processed in chunks, so memory use does not grow with the upload.
+// Results are written back as newline-delimited JSON, one line per input row, flushed after every chunk.
+@RestController
+@RequestMapping("/auth/v1")
+public class BulkSignUpController {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkSignUpController.class);
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
+    private final BulkSignUpService bulkSignUpService;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+    private final ObjectWriter resultWriter;
+
+    @Value("${auth.bulk-signup.chunk-size:200}")
+    private int chunkSize; // Rows per transaction; a multiple of hibernate.jdbc.batch_size keeps batches full
+
+    @Value("${auth.bulk-signup.max-rows:10000}")
+    private long maxRows; // Rows past this are not read, bounds the hashing work one request can queue
+
+    public BulkSignUpController(BulkSignUpService bulkSignUpService, ObjectMapper objectMapper) {
+        this.bulkSignUpService = bulkSignUpService;
+        this.jsonReader = objectMapper.readerFor(UserInfoDto.class);
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES); // Extra export columns are ignored, as in JSON
+        this.csvReader = csvMapper.readerFor(UserInfoDto.class).with(CsvSchema.emptySchema().withHeader());
+        this.resultWriter = objectMapper.writerFor(BulkSignUpResultDto.class);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/signup/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON, CSV}, produces = NDJSON)
+    public void bulkSignUp(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        ObjectReader reader = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(CSV))
+                ? csvReader : jsonReader;
+
+        Set<String> seenUsernames = new HashSet<>(); // Repeats inside the import, across chunks
+        List<UserInfoDto> chunk = new ArrayList<>(chunkSize);
+        long firstLine = 1;
+        long rowCount = 0;
+        try (MappingIterator<UserInfoDto> rows = reader.readValues(request.getInputStream())) {
+            while (rows.hasNextValue()) {
+                if (++rowCount > maxRows) {
+                    writeError(out, rowCount, "Import exceeds " + maxRows + " rows, remaining rows were not read");
+                    break;
+                }
+                chunk.add(rows.nextValue());
+                if (chunk.size() == chunkSize) {
+                    write(out, bulkSignUpService.signUpChunk(chunk, firstLine, seenUsernames));
+                    firstLine += chunk.size();
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException exception) {
+            // Rows before the malformed one are still processed below; nothing after it can be located reliably
+            log.warn("Bulk signup body unreadable after line {}: {}", firstLine + chunk.size() - 1, exception.getOriginalMessage());
+            if (!chunk.isEmpty()) write(out, bulkSignUpService.signUpChunk(chunk, firstLine, seenUsernames));
+            writeError(out, firstLine + chunk.size(), "Malformed row, this and later rows were not read");
+            return;
+        }
+        if (!chunk.isEmpty()) write(out, bulkSignUpService.signUpChunk(chunk, firstLine, seenUsernames));
+        log.info("Bulk signup processed {} rows", Math.min(rowCount, maxRows));
+    }
+
+    private void write(OutputStream out, List<BulkSignUpResultDto> results) throws IOException {
+        for (BulkSignUpResultDto result : results) {
+            out.write(resultWriter.writeValueAsBytes(result)); // Not writeValue(out): that would close the response stream
+            out.write('\n');
+        }
+        out.flush(); // The client sees each chunk's outcome as soon as it is committed
+    }
+
+    private void writeError(OutputStream out, long line, String error) throws IOException {
+        write(out, List.of(BulkSignUpResultDto.builder()
+                .line(line)
+                .status(BulkSignUpResultDto.FAILED)
+                .errors(List.of(error))
+                .build()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.eta.authservice.controller;
+
+import com.eta.authservice.auth.IntrospectionRateLimiter;
+import com.eta.authservice.request.IntrospectionRequestDto;
+import com.eta.authservice.response.IntrospectionResponseDto;
+import com.eta.authservice.response.TokenIntrospectionDto;
+import com.eta.authservice.service.TokenIntrospectionService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/auth/v1")
+public class IntrospectionController {
+
+    private static final Logger log = LoggerFactory.getLogger(IntrospectionController.class);
+
+    private final TokenIntrospectionService tokenIntrospectionService;
+    private final IntrospectionRateLimiter introspectionRateLimiter;
+
+    @Value("${auth.introspection.max-batch-size:100}")
+    private int maxBatchSize; // Bounds the work a single request can trigger
+
+    @Value("${auth.introspection.max-cache-seconds:300}")
+    private long maxCacheSeconds; // Upper bound on how long callers may reuse a result
+
+    // Batch validation for gateways and downstream services; results are in request order.
+    // Callers authenticate with their own access token and need ROLE_INTROSPECT (service accounts) or ROLE_ADMIN,
+    // so the endpoint cannot be used as an anonymous token-validity oracle.
+    @PreAuthorize("hasAnyRole('INTROSPECT', 'ADMIN')")
+    @PostMapping("/introspect")
+    public ResponseEntity<IntrospectionResponseDto> introspect(@RequestBody IntrospectionRequestDto introspectionRequestDto,
+                                                               Principal caller){
+        List<String> tokens = introspectionRequestDto.getTokens();
+        if (tokens == null || tokens.isEmpty() || tokens.size() > maxBatchSize){
+            log.warn("Rejected introspection batch of {} tokens", tokens == null ? 0 : tokens.size());
+            return ResponseEntity.badRequest().build();
+        }
+        long waitNanos = introspectionRateLimiter.tryAcquire(caller.getName(), tokens.size()); // Weighted by batch size
+        if (waitNanos > 0){
+            log.warn("Introspection rate limit exceeded for '{}'", caller.getName());
+            long seconds = Math.max(1L, (TimeUnit.NANOSECONDS.toMillis(waitNanos) + 999) / 1000); // Round up, never advertise 0
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                    .build();
+        }
+
+        List<TokenIntrospectionDto> results = tokenIntrospectionService.introspect(tokens);
+        long cacheSeconds = tokenIntrospectionService.cacheableForSeconds(results, maxCacheSeconds);
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(cacheSeconds)).cachePrivate()) // Never outlives a token's exp
+                .body(IntrospectionResponseDto.builder().results(results).build());
+    }
+}
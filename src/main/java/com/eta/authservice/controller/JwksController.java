@@ -0,0 +1,28 @@
+package com.eta.authservice.controller;
+
+import com.eta.authservice.service.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private static final CacheControl JWKS_CACHE = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic(); // Verifiers refetch on an unknown kid anyway
+
+    private final JwtKeyRing jwtKeyRing;
+
+    // Public keys for verifying access tokens locally, see RFC 7517
+    @GetMapping(value = "/.well-known/jwks.json", produces = "application/jwk-set+json")
+    public ResponseEntity<Map<String, Object>> jwks(){
+        return ResponseEntity.ok()
+                .cacheControl(JWKS_CACHE)
+                .body(jwtKeyRing.getJwks()); // Built once at startup
+    }
+}
@@ -1,22 +1,37 @@
 package com.eta.authservice.controller;
 
-import com.eta.authservice.entities.RefreshToken;
+import com.eta.authservice.auth.BoundedPasswordEncoder;
+import com.eta.authservice.auth.LoginAttemptTracker;
+import com.eta.authservice.auth.LoginRateLimiter;
 import com.eta.authservice.request.AuthRequestDto;
 import com.eta.authservice.request.RefreshTokenRequestDto;
 import com.eta.authservice.response.JwtResponseDto;
 import com.eta.authservice.service.JwtService;
+import com.eta.authservice.service.CustomUserDetails;
 import com.eta.authservice.service.RefreshTokenService;
+import com.eta.authservice.service.TokenRevocationService;
+import com.eta.authservice.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/auth/v1")
@@ -27,9 +42,28 @@ public class TokenController {
     private final AuthenticationManager authenticationManager;
     private final RefreshTokenService refreshTokenService;
     private final JwtService jwtService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final LoginAttemptTracker loginAttemptTracker;
+
+    @Value("${auth.password.hashing.retry-after-seconds:1}")
+    private String hashingRetryAfterSeconds; // Retry-After sent when password hashing is saturated
 
     @PostMapping("/login")
-    public ResponseEntity<JwtResponseDto> login(@RequestBody AuthRequestDto authRequestDto){
+    public ResponseEntity<JwtResponseDto> login(@RequestBody AuthRequestDto authRequestDto, HttpServletRequest request){
+        // Throttling comes first, so abusive clients never reach the user lookup or BCrypt
+        long waitNanos = loginRateLimiter.tryAcquire(authRequestDto.getUsername(), request.getRemoteAddr());
+        if (waitNanos > 0){
+            log.warn("Login rate limit exceeded for '{}' from {}", authRequestDto.getUsername(), request.getRemoteAddr());
+            return tooManyAttempts(Duration.ofNanos(waitNanos));
+        }
+        Duration remainingLock = loginAttemptTracker.remainingLock(authRequestDto.getUsername());
+        if (!remainingLock.isZero()){
+            log.warn("Login attempt for locked account '{}'", authRequestDto.getUsername());
+            return tooManyAttempts(remainingLock);
+        }
+
         try{
             Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken
                     (
@@ -39,12 +73,14 @@ public class TokenController {
             ); // Authenticate user credentials
 
             if (authentication.isAuthenticated()){
-                RefreshToken refreshToken = refreshTokenService.createRefreshToken(authRequestDto.getUsername()); // Generate refresh token
-                String accessToken = jwtService.generateToken(authRequestDto.getUsername()); // Generate access token
+                loginAttemptTracker.recordSuccess(authRequestDto.getUsername()); // Reset the failure streak
+                CustomUserDetails principal = (CustomUserDetails) authentication.getPrincipal(); // Already loaded by the provider
+                String refreshToken = refreshTokenService.createRefreshToken(principal.getUserId(), principal.getUsername()); // Generate refresh token
+                String accessToken = jwtService.generateToken(principal); // Generate access token with embedded roles
 
                 JwtResponseDto jwtResponseDto = JwtResponseDto.builder()
                         .accessToken(accessToken)
-                        .token(refreshToken.getToken())
+                        .token(refreshToken)
                         .build(); // Build JWT response
 
                 log.info("User '{}' logged in successfully", authRequestDto.getUsername());
@@ -56,34 +92,90 @@ public class TokenController {
             }
         }
         catch (BadCredentialsException badCredentialsException) {
+            loginAttemptTracker.recordFailure(authRequestDto.getUsername()); // Counts towards a progressive lockout
             log.error("Invalid username/password for '{}'", authRequestDto.getUsername());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); // Invalid credentials
         }
+        catch (LockedException lockedException) {
+            return tooManyAttempts(loginAttemptTracker.remainingLock(authRequestDto.getUsername())); // Locked while this attempt was in flight
+        }
         catch (Exception exception){
+            if (BoundedPasswordEncoder.isCapacityExceeded(exception)){
+                log.warn("Password hashing saturated, rejecting login for '{}'", authRequestDto.getUsername());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, hashingRetryAfterSeconds)
+                        .build(); // Shed load fast instead of queueing behind BCrypt
+            }
             log.error("Error during authentication", exception);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build(); // Unexpected error handling
         }
     }
 
+    private ResponseEntity<JwtResponseDto> tooManyAttempts(Duration retryAfter){
+        long seconds = Math.max(1L, (retryAfter.toMillis() + 999) / 1000); // Round up, never advertise 0
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .build();
+    }
+
     @PostMapping("/refreshToken")
     public ResponseEntity<JwtResponseDto> refreshToken(@RequestBody RefreshTokenRequestDto refreshTokenRequestDto){
-        return refreshTokenService.findByToken(refreshTokenRequestDto.getToken())
-                .map(refreshTokenService::verifyExpiration) // Validate refresh token expiration
-                .map(RefreshToken::getUserInfo) // Extract associated user
-                .map(userInfo -> {
-                    String newAccessToken = jwtService.generateToken(userInfo.getUsername()); // Generate new access token
+        return refreshTokenService.rotate(refreshTokenRequestDto.getToken()) // Validate, expire-check and rotate in one step
+                .map(rotation -> {
+                    UserDetails userDetails = userDetailsService.loadUserByUsername(rotation.session().username()); // Extract associated user (cached)
+                    String newAccessToken = jwtService.generateToken(userDetails); // Generate new access token
 
                     JwtResponseDto jwtResponseDto = JwtResponseDto.builder()
                             .accessToken(newAccessToken)
-                            .token(refreshTokenRequestDto.getToken())
-                            .build(); // Reuse existing refresh token
+                            .token(rotation.rawToken())
+                            .build(); // The presented refresh token is now spent
 
-                    log.info("Refresh token used for user '{}'", userInfo.getUsername());
+                    log.info("Refresh token rotated for user '{}'", userDetails.getUsername());
                     return ResponseEntity.ok(jwtResponseDto);
                 }).orElseThrow(() -> {
-                    log.warn("Refresh token not found or expired: {}", refreshTokenRequestDto.getToken());
+                    log.warn("Refresh token not found, revoked or reused"); // Never log the bearer secret itself
                     return new RuntimeException("Refresh Token is not valid or expired"); // Invalid or expired refresh token
                 });
 
     }
+
+    // Ends the current session: the presented access token and, if sent, its refresh token
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequestDto refreshTokenRequestDto,
+                                       @AuthenticationPrincipal CustomUserDetails principal){
+        Claims claims = jwtService.extractAllClaims(authorization.substring(7)); // Already verified by JwtAuthFilter
+        if (claims != null) tokenRevocationService.revoke(claims);
+        if (refreshTokenRequestDto != null && refreshTokenRequestDto.getToken() != null){
+            String userId = userIdOf(principal);
+            if (userId != null) refreshTokenService.revoke(refreshTokenRequestDto.getToken(), userId); // Only the family's owner can end it
+        }
+        log.info("User '{}' logged out", principal.getUsername());
+        return ResponseEntity.noContent().build();
+    }
+
+    // Ends every session of the user on every device
+    @PostMapping("/logout/all")
+    public ResponseEntity<Void> logoutEverywhere(@AuthenticationPrincipal CustomUserDetails principal){
+        String userId = userIdOf(principal);
+        if (userId == null){
+            log.warn("Logout everywhere for unknown user '{}'", principal.getUsername());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); // Account deleted since the token was issued
+        }
+        tokenRevocationService.revokeAllForUser(userId, principal.getUsername()); // Username covers tokens without a uid claim
+        refreshTokenService.revokeAll(userId);
+        log.info("User '{}' logged out of all sessions", principal.getUsername());
+        return ResponseEntity.noContent().build();
+    }
+
+    // A stateless principal built from a token issued before the uid claim has no user id: resolve it from the (cached) user lookup
+    private String userIdOf(CustomUserDetails principal){
+        if (principal.getUserId() != null) return principal.getUserId();
+        try{
+            return ((CustomUserDetails) userDetailsService.loadUserByUsername(principal.getUsername())).getUserId();
+        }
+        catch (UsernameNotFoundException usernameNotFoundException){
+            return null;
+        }
+    }
 }
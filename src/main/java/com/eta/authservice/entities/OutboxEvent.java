@@ -0,0 +1,43 @@
+package com.eta.authservice.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "user_event_outbox", indexes = {
+        @Index(name = "idx_outbox_next_attempt", columnList = "next_attempt_at, event_id"), // Relay polling order
+        @Index(name = "idx_outbox_aggregate", columnList = "aggregate_id, event_id") // Per-user ordering check
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId; // Monotonic, defines publish order
+
+    @Column(name = "aggregate_id", length = 255, nullable = false)
+    private String aggregateId; // User id, also used as the Kafka key
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload; // UserInfoDto as JSON, captured in the signup transaction
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts; // Failed publish attempts so far
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt; // Backoff: not eligible for relay before this instant
+}
@@ -18,7 +18,12 @@ import java.time.Instant;
 @AllArgsConstructor
 @Builder
 @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class) // Ensure JSON fields follow snake_case format
-@Table(name = "tokens")
+@Table(name = "tokens", indexes = {
+        @Index(name = "uk_tokens_family_id", columnList = "family_id", unique = true), // Lookup by family id
+        @Index(name = "uk_tokens_token", columnList = "token", unique = true),
+        @Index(name = "idx_tokens_user_id", columnList = "user_id"), // A user's sessions
+        @Index(name = "idx_tokens_expiry_date", columnList = "expiry_date") // Expired-token purge
+})
 public class RefreshToken {
 
     @Id
@@ -26,13 +31,16 @@ public class RefreshToken {
     @Column(name = "token_id")
     private Long tokenId; // Primary key for refresh token
 
+    @Column(name = "family_id", length = 22, nullable = false, updatable = false)
+    private String familyId; // Stable id of one login session (device), carried as the prefix of every token it rotates through
+
     @Column(length = 255, nullable = false)
-    private String token; // Actual refresh token value
+    private String token; // SHA-256 (hex) of the family's current refresh token, the raw value is never stored
 
     @Column(name = "expiry_date", nullable = false)
     private Instant expiryDate; // Expiration timestamp for token validity
 
-    @OneToOne(optional = false)
-    @JoinColumn(name = "user_id", referencedColumnName = "user_id", nullable = false, unique = true)
-    private UserInfo userInfo; // Each user has exactly one refresh token
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", referencedColumnName = "user_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UserInfo userInfo; // A user has one token family per active session
 }
@@ -0,0 +1,33 @@
+package com.eta.authservice.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"), // Filter rebuild and purge
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at") // Incremental refresh
+})
+public class RevokedToken {
+
+    @Id
+    @Column(name = "jti", length = 32)
+    private String jti; // Access token id
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt; // The token's own exp; the row is useless afterwards
+
+    @Column(name = "revoked_at")
+    private Instant revokedAt; // When logout happened; null on rows written before it was recorded, which only a full rebuild reads
+}
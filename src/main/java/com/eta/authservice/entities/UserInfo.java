@@ -16,8 +16,9 @@ import java.util.Set;
 public class UserInfo {
 
     @Id
-    @Column(name = "user_id", length = 255)
-    private String userId; // Primary key using UUID
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "user_id", columnDefinition = "BINARY(16)")
+    private String userId; // Time-ordered UUIDv7 (UserIdGenerator), 16 bytes in the DB, canonical string everywhere else
 
     @Column(length = 30, nullable = false, unique = true)
     private String username; // Username for login
@@ -26,10 +27,10 @@ public class UserInfo {
     private String password; // Hashed password
 
     @Builder.Default
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY) // Authentication reads role names through UserRepository.findAuthRowsByUsername
     @JoinTable(
             name = "users_roles",
-            joinColumns = @JoinColumn(name = "user_id"),
+            joinColumns = @JoinColumn(name = "user_id", columnDefinition = "BINARY(16)"),
             inverseJoinColumns = @JoinColumn(name = "role_id")
     )
     private Set<UserRole> roles = new HashSet<>(); // User roles for authorization
@@ -0,0 +1,37 @@
+package com.eta.authservice.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "user_token_cutoffs", indexes = {
+        @Index(name = "idx_user_token_cutoffs_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_user_token_cutoffs_not_before", columnList = "not_before") // Incremental refresh
+})
+public class UserTokenCutoff {
+
+    @Id
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "user_id", columnDefinition = "BINARY(16)")
+    private String userId; // Same representation as users.user_id
+
+    @Column(name = "username", length = 30)
+    private String username; // Matches tokens issued before the uid claim existed, which only carry sub
+
+    @Column(name = "not_before", nullable = false)
+    private Instant notBefore; // Access tokens of this user issued earlier are rejected
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt; // not_before plus the access token lifetime, after which no affected token is left
+}
@@ -0,0 +1,75 @@
+package com.eta.authservice.eventProducer;
+
+import com.eta.authservice.entities.OutboxEvent;
+import com.eta.authservice.model.UserInfoDto;
+import com.eta.authservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+// Records user events in the caller's transaction; UserEventOutboxRelay publishes them to Kafka after commit
+@Component
+public class UserEventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    private static final String INSERT_EVENT = "INSERT INTO user_event_outbox "
+            + "(aggregate_id, payload, created_at, attempts, next_attempt_at) VALUES (?, ?, ?, 0, ?)";
+
+    public UserEventOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+                           Clock clock) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY) // Only meaningful alongside the user row write
+    public void enqueue(UserInfoDto userInfoDto) {
+        Instant now = clock.instant();
+        OutboxEvent event = OutboxEvent.builder()
+                .aggregateId(userInfoDto.getUserId())
+                .payload(toJson(userInfoDto))
+                .createdAt(now)
+                .attempts(0)
+                .nextAttemptAt(now) // Eligible for the next relay run
+                .build();
+        outboxEventRepository.save(event);
+    }
+
+    // Bulk signup: one JDBC batch instead of a round trip per event (IDENTITY ids stop Hibernate from batching these).
+    // Rows keep list order, so event ids stay in signup order.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<? extends UserInfoDto> userInfoDtos) {
+        if (userInfoDtos.isEmpty()) return;
+        Timestamp now = Timestamp.from(clock.instant());
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC")); // Same storage convention Hibernate uses for Instant
+        jdbcTemplate.batchUpdate(INSERT_EVENT, userInfoDtos, userInfoDtos.size(), (statement, userInfoDto) -> {
+            statement.setString(1, userInfoDto.getUserId());
+            statement.setString(2, toJson(userInfoDto));
+            statement.setTimestamp(3, now, utc);
+            statement.setTimestamp(4, now, utc); // Eligible for the next relay run
+        });
+    }
+
+    private String toJson(UserInfoDto userInfoDto) {
+        try {
+            return objectMapper.writeValueAsString(userInfoDto);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Failed to serialize user event for " + userInfoDto.getUserId(), exception); // Rolls back the signup
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.eta.authservice.eventProducer;
+
+import com.eta.authservice.entities.OutboxEvent;
+import com.eta.authservice.model.UserInfoDto;
+import com.eta.authservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Drains the signup outbox to Kafka in batches. Each batch takes two short transactions: one claims the rows by leasing
+// them (pushing next_attempt_at past the send deadline), the other deletes the delivered rows and reschedules the rest.
+// Kafka sends happen in between, with no row locks or connection held. Delivery is at-least-once: an event whose
+// acknowledgement times out, or whose relay dies before the second transaction, is retried and may be published
+// twice, so consumers should treat the userId key as idempotent.
+@Component
+public class UserEventOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEventOutboxRelay.class);
+
+    private static final Duration LEASE_MARGIN = Duration.ofSeconds(30); // Covers the second transaction after the send deadline
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserInfoDtoProducer userInfoDtoProducer;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Counter relayedCounter;
+    private final Counter failedCounter;
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs; // Upper bound on how long a batch waits for acks
+
+    @Value("${outbox.relay.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    public UserEventOutboxRelay(OutboxEventRepository outboxEventRepository, UserInfoDtoProducer userInfoDtoProducer,
+                                ObjectMapper objectMapper, PlatformTransactionManager transactionManager, Clock clock,
+                                MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.userInfoDtoProducer = userInfoDtoProducer;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.relayedCounter = Counter.builder("auth.outbox.relayed").description("Outbox events delivered to Kafka").register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.outbox.failed").description("Outbox delivery attempts that will be retried").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        List<OutboxEvent> batch = claimNextBatch();
+        if (batch.isEmpty()) return;
+
+        // Hand the whole batch to the producer first so it can be linger-batched and compressed together
+        Map<OutboxEvent, CompletableFuture<?>> sends = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            try {
+                sends.put(event, userInfoDtoProducer.sendEventToKafka(objectMapper.readValue(event.getPayload(), UserInfoDto.class)));
+            } catch (Exception exception) {
+                sends.put(event, CompletableFuture.failedFuture(exception)); // Bad payload or producer refused the record
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Long> delivered = new ArrayList<>(batch.size());
+        Map<OutboxEvent, Exception> failed = new LinkedHashMap<>();
+        for (Map.Entry<OutboxEvent, CompletableFuture<?>> send : sends.entrySet()) {
+            OutboxEvent event = send.getKey();
+            try {
+                send.getValue().get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                delivered.add(event.getEventId());
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                failed.put(event, interruptedException);
+            } catch (ExecutionException | TimeoutException exception) {
+                failed.put(event, exception);
+            }
+        }
+
+        complete(delivered, failed);
+    }
+
+    // First transaction: lock the due rows, lease them past the send deadline and commit, releasing the locks
+    private List<OutboxEvent> claimNextBatch() {
+        return transactionTemplate.execute(status -> {
+            Instant now = clock.instant();
+            List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(now, batchSize);
+            if (!batch.isEmpty()) {
+                List<Long> eventIds = new ArrayList<>(batch.size());
+                batch.forEach(event -> eventIds.add(event.getEventId()));
+                outboxEventRepository.leaseUntil(eventIds, now.plusMillis(sendTimeoutMs).plus(LEASE_MARGIN));
+            }
+            return batch; // Detached once committed, read-only from here on
+        });
+    }
+
+    // Second transaction: drop what was delivered, reschedule what was not
+    private void complete(List<Long> delivered, Map<OutboxEvent, Exception> failed) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.deleteByEventIdIn(delivered);
+            }
+            failed.forEach(this::scheduleRetry);
+        });
+        relayedCounter.increment(delivered.size());
+    }
+
+    private void scheduleRetry(OutboxEvent event, Exception exception) {
+        int attempts = event.getAttempts() + 1;
+        long backoffMs = Math.min(maxBackoffMs, 100L << Math.min(attempts, 20)); // Exponential, capped
+        outboxEventRepository.scheduleRetry(event.getEventId(), attempts, clock.instant().plusMillis(backoffMs)); // Replaces the lease
+        failedCounter.increment();
+        log.warn("Outbox event {} for user {} not delivered (attempt {}), retrying in {} ms",
+                event.getEventId(), event.getAggregateId(), attempts, backoffMs, exception);
+    }
+}
@@ -1,37 +1,77 @@
 package com.eta.authservice.eventProducer;
 
 import com.eta.authservice.model.UserInfoDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Service
 public class UserInfoDtoProducer {
+
+    private static final Logger log = LoggerFactory.getLogger(UserInfoDtoProducer.class);
+
     public final KafkaTemplate<String, UserInfoDto> kafkaTemplate; // Kafka template used to publish messages to Kafka topics
 
     // Topic name injected from application.properties
     @Value("${spring.kafka.topic.name}")
     public String KAFKA_TOPIC;
 
+    private final Timer successTimer; // Time from send() to broker acknowledgement
+    private final Timer failureTimer; // Its count is the number of failed sends
+    private final AtomicInteger inFlight = new AtomicInteger(); // Sends handed to the producer but not yet acknowledged
+
     // Constructor injection for KafkaTemplate (recommended for testability)
     @Autowired
-    public UserInfoDtoProducer(KafkaTemplate<String, UserInfoDto> kafkaTemplate){
+    public UserInfoDtoProducer(KafkaTemplate<String, UserInfoDto> kafkaTemplate, MeterRegistry meterRegistry){
         this.kafkaTemplate = kafkaTemplate;
+        this.successTimer = sendTimer(meterRegistry, "success"); // Registered once, not per acknowledgement
+        this.failureTimer = sendTimer(meterRegistry, "failure");
+        Gauge.builder("auth.kafka.user_info.in_flight", inFlight, AtomicInteger::get)
+                .description("User info events awaiting broker acknowledgement")
+                .register(meterRegistry);
     }
 
-    // Sends user information event to Kafka
-    public void sendEventToKafka(UserInfoDto userInfoDto){
+    // Sends user information event to Kafka, keyed by userId so all events of one user land on one partition in order
+    public CompletableFuture<SendResult<String, UserInfoDto>> sendEventToKafka(UserInfoDto userInfoDto){
+        long startedAt = System.nanoTime();
+        inFlight.incrementAndGet();
 
-        // Build Kafka message with payload and topic header
-        Message<UserInfoDto> message = MessageBuilder
-                .withPayload(userInfoDto)
-                .setHeader(KafkaHeaders.TOPIC, KAFKA_TOPIC)
-                .build();
+        CompletableFuture<SendResult<String, UserInfoDto>> future;
+        try {
+            future = kafkaTemplate.send(KAFKA_TOPIC, userInfoDto.getUserId(), userInfoDto); // Buffered and batched by the producer
+        } catch (RuntimeException exception) {
+            recordCompletion(startedAt, exception); // e.g. serialization failure or buffer-full timeout
+            throw exception;
+        }
+
+        return future.whenComplete((result, exception) -> {
+            recordCompletion(startedAt, exception);
+            if (exception != null) {
+                log.error("Failed to publish user info event for user {}", userInfoDto.getUserId(), exception);
+            }
+        });
+    }
+
+    private void recordCompletion(long startedAt, Throwable exception){
+        inFlight.decrementAndGet();
+        (exception == null ? successTimer : failureTimer).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
 
-        kafkaTemplate.send(message); // Publish event asynchronously to Kafka
+    private static Timer sendTimer(MeterRegistry meterRegistry, String result){
+        return Timer.builder("auth.kafka.user_info.send")
+                .description("Time from send() to broker acknowledgement")
+                .tag("result", result)
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
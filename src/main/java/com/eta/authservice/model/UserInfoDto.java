@@ -4,13 +4,15 @@ import com.eta.authservice.entities.UserInfo;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
 import lombok.AllArgsConstructor;
-import lombok.Builder;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class) // Use snake_case in JSON responses
+@Getter
+@Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
 public class UserInfoDto extends UserInfo {
     private String firstName; // User's first name
     private String lastName;  // User's last name
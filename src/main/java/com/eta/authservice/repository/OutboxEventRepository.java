@@ -0,0 +1,38 @@
+package com.eta.authservice.repository;
+
+import com.eta.authservice.entities.OutboxEvent;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends CrudRepository<OutboxEvent, Long> {
+
+    // Oldest due event of each user only, so a user's later events never overtake an earlier one that is backing off.
+    // SKIP LOCKED lets several relay instances drain disjoint batches concurrently.
+    @Query(value = "SELECT o.* FROM user_event_outbox o " +
+            "WHERE o.next_attempt_at <= :now " +
+            "AND NOT EXISTS (SELECT 1 FROM user_event_outbox p WHERE p.aggregate_id = o.aggregate_id AND p.event_id < o.event_id) " +
+            "ORDER BY o.event_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    // Claims locked rows by pushing them out of the due window until the lease ends; if the relay dies mid-send,
+    // the rows become due again and are retried
+    @Modifying
+    @Query("update OutboxEvent e set e.nextAttemptAt = :leaseUntil where e.eventId in :eventIds")
+    int leaseUntil(@Param("eventIds") Collection<Long> eventIds, @Param("leaseUntil") Instant leaseUntil);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt where e.eventId = :eventId")
+    int scheduleRetry(@Param("eventId") Long eventId, @Param("attempts") int attempts, @Param("nextAttemptAt") Instant nextAttemptAt);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.eventId in :eventIds")
+    int deleteByEventIdIn(@Param("eventIds") Collection<Long> eventIds); // One statement per delivered batch
+}
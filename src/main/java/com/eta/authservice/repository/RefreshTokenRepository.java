@@ -1,15 +1,62 @@
 package com.eta.authservice.repository;
 
 import com.eta.authservice.entities.RefreshToken;
-import com.eta.authservice.entities.UserInfo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends CrudRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token); // Fetch refresh token using its token string value
 
-    Optional<RefreshToken> findByUserInfo(UserInfo userInfo); // Used to check if a user already has a refresh token, Prevents inserting duplicate rows when user_id has UNIQUE constraint.
+    // Scalar view of a token family and its owner, read without hydrating UserInfo or its roles
+    interface SessionView {
+        String getFamilyId();
+        String getTokenHash();
+        String getUserId();
+        String getUsername();
+        Instant getExpiryDate();
+    }
+
+    @Query("select t.familyId as familyId, t.token as tokenHash, u.userId as userId, u.username as username, t.expiryDate as expiryDate " +
+            "from RefreshToken t join t.userInfo u where t.familyId = :familyId")
+    Optional<SessionView> findSessionByFamilyId(@Param("familyId") String familyId); // Unique index lookup, independent of session count
+
+    @Query("select t.familyId as familyId, t.token as tokenHash, u.userId as userId, u.username as username, t.expiryDate as expiryDate " +
+            "from RefreshToken t join t.userInfo u where t.expiryDate > :now order by t.expiryDate desc")
+    List<SessionView> findActiveSessions(@Param("now") Instant now, Pageable pageable); // Warm-load, longest-lived first
+
+    // Persists a new family. Native SQL bypasses UuidBinaryConverter, hence UUID_TO_BIN (same byte order).
+    // IGNORE: an existing family id is never overwritten, the caller sees 0 rows instead.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO tokens (family_id, user_id, token, expiry_date) VALUES (:familyId, UUID_TO_BIN(:userId), :tokenHash, :expiryDate)",
+            nativeQuery = true)
+    int insertSession(@Param("familyId") String familyId, @Param("userId") String userId,
+                      @Param("tokenHash") String tokenHash, @Param("expiryDate") Instant expiryDate);
+
+    // Compare-and-set rotation: 0 rows when the family was revoked, or rotated by another instance, since it was read
+    @Modifying
+    @Transactional
+    @Query("update RefreshToken t set t.token = :tokenHash, t.expiryDate = :expiryDate " +
+            "where t.familyId = :familyId and t.token = :expectedHash")
+    int rotateSession(@Param("familyId") String familyId, @Param("expectedHash") String expectedHash,
+                      @Param("tokenHash") String tokenHash, @Param("expiryDate") Instant expiryDate);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") String familyId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.userInfo.userId = :userId")
+    int deleteByUserId(@Param("userId") String userId);
 }
@@ -0,0 +1,27 @@
+package com.eta.authservice.repository;
+
+import com.eta.authservice.entities.RevokedToken;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends CrudRepository<RevokedToken, String> {
+
+    @Query("select r.jti from RevokedToken r where r.expiresAt > :now")
+    List<String> findActiveJtis(@Param("now") Instant now); // Ids only, for the filter rebuild
+
+    @Query("select r.jti from RevokedToken r where r.revokedAt >= :since and r.expiresAt > :now")
+    List<String> findActiveJtisRevokedSince(@Param("since") Instant since, @Param("now") Instant now); // Incremental refresh
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,10 +1,38 @@
 package com.eta.authservice.repository;
 
 import com.eta.authservice.entities.UserInfo;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface UserRepository extends CrudRepository<UserInfo, String> {
-    public UserInfo findByUsername(String username); // Retrieve user by username
+
+    // One row per role (a single row with a null role name for a user without roles); scalars only, no entities
+    interface AuthRow {
+        String getUserId();
+        String getUsername();
+        String getPassword();
+        String getRoleName();
+    }
+
+    @Query("select u.userId as userId, u.username as username, u.password as password, r.name as roleName " +
+            "from UserInfo u left join u.roles r where u.username = :username")
+    List<AuthRow> findAuthRowsByUsername(@Param("username") String username); // Everything authentication needs, one join
+
+    boolean existsByUsername(String username); // SELECT ... LIMIT 1, nothing hydrated
+
+    @Query("select u.username from UserInfo u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames); // Bulk signup: one lookup per chunk
+
+    @Modifying
+    @Transactional
+    @Query("update UserInfo u set u.password = :password where u.username = :username")
+    int updatePasswordByUsername(@Param("username") String username, @Param("password") String password); // Single UPDATE, no entity load
 }
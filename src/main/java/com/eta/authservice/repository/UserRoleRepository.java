@@ -0,0 +1,15 @@
+package com.eta.authservice.repository;
+
+import com.eta.authservice.entities.UserRole;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserRoleRepository extends CrudRepository<UserRole, Long> {
+
+    @Query("select r.name from UserRole r")
+    List<String> findAllNames(); // The whole roles table is a handful of rows
+}
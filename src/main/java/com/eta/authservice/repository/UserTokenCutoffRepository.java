@@ -0,0 +1,27 @@
+package com.eta.authservice.repository;
+
+import com.eta.authservice.entities.UserTokenCutoff;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UserTokenCutoffRepository extends CrudRepository<UserTokenCutoff, String> {
+
+    @Query("select c from UserTokenCutoff c where c.expiresAt > :now")
+    List<UserTokenCutoff> findActive(@Param("now") Instant now);
+
+    @Query("select c from UserTokenCutoff c where c.notBefore >= :since and c.expiresAt > :now")
+    List<UserTokenCutoff> findActiveSetSince(@Param("since") Instant since, @Param("now") Instant now); // A re-logout-all moves not_before forward
+
+    @Modifying
+    @Transactional
+    @Query("delete from UserTokenCutoff c where c.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
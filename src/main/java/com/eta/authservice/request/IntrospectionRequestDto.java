@@ -0,0 +1,16 @@
+package com.eta.authservice.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IntrospectionRequestDto {
+    private List<String> tokens; // Access tokens to check, answered in the same order
+}
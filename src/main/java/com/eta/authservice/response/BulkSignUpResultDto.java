@@ -0,0 +1,31 @@
+package com.eta.authservice.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class BulkSignUpResultDto {
+
+    public static final String CREATED = "created"; // User and signup event written
+    public static final String EXISTS = "exists";   // Username taken, or repeated earlier in the same import
+    public static final String INVALID = "invalid"; // Failed ValidationUtil rules, see errors
+    public static final String FAILED = "failed";   // Not written, safe to resubmit
+
+    private long line;           // 1-based position of the row in the request body
+    private String username;
+    private String status;
+    private String userId;       // Only for created rows
+    private List<String> errors; // Only for invalid and failed rows
+}
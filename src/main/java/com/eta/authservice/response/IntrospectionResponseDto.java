@@ -0,0 +1,16 @@
+package com.eta.authservice.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IntrospectionResponseDto {
+    private List<TokenIntrospectionDto> results; // One entry per requested token, same order
+}
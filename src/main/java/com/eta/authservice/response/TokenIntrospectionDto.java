@@ -0,0 +1,26 @@
+package com.eta.authservice.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL) // Inactive tokens are reported as {"active":false} only, as in RFC 7662
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class TokenIntrospectionDto {
+    private boolean active;     // Signature valid, not expired, user still exists
+    private String sub;         // Username
+    private String uid;         // User id
+    private List<String> roles; // Current authority names
+    private Long iat;           // Issued at, epoch seconds
+    private Long exp;           // Expiry, epoch seconds
+}
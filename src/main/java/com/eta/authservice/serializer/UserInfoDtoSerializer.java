@@ -2,39 +2,65 @@ package com.eta.authservice.serializer;
 
 import com.eta.authservice.model.UserInfoDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.Serializer;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 import java.util.Map;
 
 public class UserInfoDtoSerializer implements Serializer<UserInfoDto> {
 
+    public static final String FORMAT_CONFIG = "user-info.serializer.format"; // json (default) or smile
+    public static final String CONTENT_TYPE_HEADER = "content-type"; // Lets the consumer pick the matching deserializer
+
+    // Writers are immutable and thread-safe, so one per format is shared by every serializer instance.
+    // writeValueAsBytes encodes straight to UTF-8 (or Smile) into Jackson's recycled buffers, no intermediate String.
+    private static final ObjectWriter JSON_WRITER = new ObjectMapper().writerFor(UserInfoDto.class);
+    private static final ObjectWriter SMILE_WRITER = new SmileMapper().writerFor(UserInfoDto.class);
+
+    private ObjectWriter writer = JSON_WRITER;
+    private byte[] contentType = "application/json".getBytes(StandardCharsets.UTF_8);
+
     // Called when serializer is initialized with configuration
     @Override
     public void configure(Map<String, ?> configs, boolean isKey) {
-        Serializer.super.configure(configs, isKey);
+        Object format = configs.get(FORMAT_CONFIG);
+        if (format == null || "json".equalsIgnoreCase(format.toString())) {
+            return; // Defaults already set
+        }
+        if ("smile".equalsIgnoreCase(format.toString())) {
+            writer = SMILE_WRITER; // Compact binary JSON, same data model
+            contentType = "application/x-jackson-smile".getBytes(StandardCharsets.UTF_8);
+            return;
+        }
+        throw new IllegalArgumentException("Unsupported " + FORMAT_CONFIG + ": " + format.toString().toLowerCase(Locale.ROOT));
     }
 
     // Converts UserInfoDto object into byte[] before sending to Kafka
     @Override
-    public byte[] serialize(String key, UserInfoDto value) {
-
-        byte[] returnByteValue = null;
-        ObjectMapper objectMapper = new ObjectMapper();// ObjectMapper used to convert Java object to JSON
+    public byte[] serialize(String topic, UserInfoDto value) {
+        if (value == null) return null; // Kafka convention for tombstones
 
-        try{
-            returnByteValue = objectMapper.writeValueAsString(value).getBytes(); // Convert object to JSON string then to byte array
-        }catch (Exception exception){
-            exception.printStackTrace();
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (Exception exception) {
+            // Fail the send instead of publishing an empty record
+            throw new SerializationException("Failed to serialize UserInfoDto for topic " + topic, exception);
         }
-
-        return returnByteValue;
     }
 
-    // Optional method supporting Kafka headers (default implementation used)
+    // Adds the payload format as a header so consumers can handle both JSON and Smile producers
     @Override
     public byte[] serialize(String topic, Headers headers, UserInfoDto data) {
-        return Serializer.super.serialize(topic, headers, data);
+        if (headers != null) {
+            headers.remove(CONTENT_TYPE_HEADER);
+            headers.add(CONTENT_TYPE_HEADER, contentType);
+        }
+        return serialize(topic, data);
     }
 
     // Called when serializer is closed
@@ -42,4 +68,4 @@ public class UserInfoDtoSerializer implements Serializer<UserInfoDto> {
     public void close() {
         Serializer.super.close();
     }
-}
\ No newline at end of file
+}
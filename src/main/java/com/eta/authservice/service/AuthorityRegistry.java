@@ -0,0 +1,99 @@
+package com.eta.authservice.service;
+
+import com.eta.authservice.entities.UserRole;
+import com.eta.authservice.repository.UserRoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Interns authorities: one GrantedAuthority per role name and one immutable list per distinct role combination.
+// Users share the list of their combination instead of each principal holding its own copy, and the JWT roles claim
+// is serialized once per list. Role names are loaded from the roles table at startup. Roles are only ever added or
+// renamed directly in the database, so there is no write path to refresh from: a new role is interned on first use,
+// and the periodic reload only prunes names that no longer exist.
+@Component
+public class AuthorityRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private static final int MAX_INTERNED_SETS = 1024; // Far above the real number of combinations; past it lists are built per call
+
+    private final UserRoleRepository userRoleRepository;
+    private final ConcurrentHashMap<String, GrantedAuthority> authoritiesByName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<List<String>, List<GrantedAuthority>> authoritiesByRoleNames = new ConcurrentHashMap<>(); // Sorted, upper-cased names
+    private volatile Set<String> knownRoleNames = Set.of();
+
+    public AuthorityRegistry(UserRoleRepository userRoleRepository) {
+        this.userRoleRepository = userRoleRepository;
+    }
+
+    public List<GrantedAuthority> forRoles(Collection<UserRole> roles) {
+        List<String> names = new ArrayList<>(roles.size());
+        for (UserRole role : roles) {
+            names.add(role.getName());
+        }
+        return forRoleNames(names);
+    }
+
+    // Accepts role names in any order and case; names read back from an issued token hit the cache directly
+    public List<GrantedAuthority> forRoleNames(Collection<?> roleNames) {
+        if (roleNames instanceof List<?>) {
+            List<GrantedAuthority> interned = authoritiesByRoleNames.get(roleNames);
+            if (interned != null) return interned;
+        }
+
+        List<String> key = roleNames.stream()
+                .map(name -> String.valueOf(name).toUpperCase(Locale.ROOT)) // Map roles to authorities
+                .distinct()
+                .sorted()
+                .toList();
+        List<GrantedAuthority> interned = authoritiesByRoleNames.get(key);
+        if (interned != null) return interned;
+
+        List<GrantedAuthority> authorities = key.stream().map(this::authority).toList(); // Unmodifiable
+        if (authoritiesByRoleNames.size() >= MAX_INTERNED_SETS) return authorities;
+        List<GrantedAuthority> existing = authoritiesByRoleNames.putIfAbsent(key, authorities);
+        return existing != null ? existing : authorities;
+    }
+
+    // Canonical interned list for authorities from any collection type, e.g. a Set built outside this registry
+    public List<GrantedAuthority> forAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        List<String> names = new ArrayList<>(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            names.add(authority.getAuthority());
+        }
+        return forRoleNames(names);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${auth.authorities.refresh-interval-ms:300000}", initialDelayString = "${auth.authorities.refresh-interval-ms:300000}")
+    public void refresh() {
+        Set<String> names = userRoleRepository.findAllNames().stream()
+                .map(name -> name.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        if (names.equals(knownRoleNames)) return;
+
+        authoritiesByName.keySet().retainAll(names); // Renamed or deleted roles stop being interned
+        authoritiesByRoleNames.keySet().removeIf(key -> !names.containsAll(key));
+        names.forEach(this::authority);
+        knownRoleNames = names;
+        log.info("Loaded {} roles into the authority registry", names.size());
+    }
+
+    private GrantedAuthority authority(String name) {
+        return authoritiesByName.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+}
@@ -0,0 +1,200 @@
+package com.eta.authservice.service;
+
+import com.eta.authservice.auth.BoundedPasswordEncoder;
+import com.eta.authservice.auth.BoundedPasswordEncoder.HashingCapacityExceededException;
+import com.eta.authservice.entities.UserInfo;
+import com.eta.authservice.eventProducer.UserEventOutbox;
+import com.eta.authservice.model.UserInfoDto;
+import com.eta.authservice.repository.UserRepository;
+import com.eta.authservice.response.BulkSignUpResultDto;
+import com.eta.authservice.utils.UserIdGenerator;
+import com.eta.authservice.utils.ValidationUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Signup for imports, one chunk of rows at a time. Per chunk: validation, one existence query, password hashing
+// spread over the hashing pool, then a single transaction that batch-inserts the users (hibernate.jdbc.batch_size)
+// and their outbox events. A chunk that hits a constraint is retried row by row so one bad row cannot sink the rest.
+@Service
+public class BulkSignUpService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkSignUpService.class);
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final UserEventOutbox userEventOutbox;
+    private final UserDetailsCache userDetailsCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager; // persist() rather than save(): ids are assigned, so save() would SELECT first
+
+    public BulkSignUpService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserEventOutbox userEventOutbox,
+                             UserDetailsCache userDetailsCache, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.userEventOutbox = userEventOutbox;
+        this.userDetailsCache = userDetailsCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // rows start at line firstLine of the import; seenUsernames spans the whole import to catch repeats across chunks.
+    // Returns one result per row, in row order.
+    public List<BulkSignUpResultDto> signUpChunk(List<UserInfoDto> rows, long firstLine, Set<String> seenUsernames) {
+        BulkSignUpResultDto[] results = new BulkSignUpResultDto[rows.size()];
+        List<Integer> candidates = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            UserInfoDto row = rows.get(i);
+            List<String> violations = ValidationUtil.findViolations(row);
+            if (!violations.isEmpty()) {
+                results[i] = result(firstLine + i, row, BulkSignUpResultDto.INVALID, violations);
+            } else if (!seenUsernames.add(normalize(row.getUsername()))) {
+                results[i] = result(firstLine + i, row, BulkSignUpResultDto.EXISTS, null);
+            } else {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) return List.of(results);
+
+        List<String> usernames = new ArrayList<>(candidates.size());
+        candidates.forEach(i -> usernames.add(rows.get(i).getUsername()));
+        Set<String> existing = new HashSet<>();
+        userRepository.findExistingUsernames(usernames).forEach(username -> existing.add(normalize(username)));
+
+        List<Integer> toCreate = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            if (existing.contains(normalize(rows.get(i).getUsername()))) {
+                results[i] = result(firstLine + i, rows.get(i), BulkSignUpResultDto.EXISTS, null);
+            } else {
+                toCreate.add(i);
+            }
+        }
+
+        try {
+            hashPasswords(rows, toCreate);
+        } catch (HashingCapacityExceededException exception) {
+            log.warn("Bulk signup chunk at line {} skipped, password hashing saturated", firstLine);
+            toCreate.forEach(i -> seenUsernames.remove(normalize(rows.get(i).getUsername()))); // Not taken, a resubmitted row must not read "exists"
+            toCreate.forEach(i -> results[i] = result(firstLine + i, rows.get(i), BulkSignUpResultDto.FAILED,
+                    List.of("Password hashing capacity exhausted, retry later")));
+            return List.of(results);
+        }
+
+        List<UserInfoDto> created = new ArrayList<>(toCreate.size());
+        toCreate.forEach(i -> created.add(rows.get(i)));
+        if (insertAll(created)) {
+            toCreate.forEach(i -> results[i] = created(firstLine + i, rows.get(i)));
+        } else {
+            for (int i : toCreate) {
+                results[i] = insertOne(firstLine + i, rows.get(i));
+            }
+        }
+
+        toCreate.forEach(i -> userDetailsCache.evict(rows.get(i).getUsername())); // Clear negative entries for new usernames
+        log.info("Bulk signup chunk at line {}: {} rows, {} created", firstLine, rows.size(),
+                created.stream().filter(dto -> dto.getUserId() != null).count());
+        return List.of(results);
+    }
+
+    private void hashPasswords(List<UserInfoDto> rows, List<Integer> toCreate) {
+        List<String> rawPasswords = new ArrayList<>(toCreate.size());
+        toCreate.forEach(i -> rawPasswords.add(rows.get(i).getPassword()));
+        List<String> encoded = passwordEncoder instanceof BoundedPasswordEncoder boundedPasswordEncoder
+                ? boundedPasswordEncoder.encodeAll(rawPasswords) // Parallel across the hashing pool
+                : rawPasswords.stream().map(passwordEncoder::encode).toList();
+        for (int j = 0; j < toCreate.size(); j++) {
+            rows.get(toCreate.get(j)).setPassword(encoded.get(j));
+        }
+    }
+
+    // One transaction for the chunk; false when it failed (e.g. a username taken concurrently) and nothing was written
+    private boolean insertAll(List<UserInfoDto> userInfoDtos) {
+        userInfoDtos.forEach(userInfoDto -> userInfoDto.setUserId(UserIdGenerator.newUserId()));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userInfoDtos.forEach(userInfoDto -> entityManager.persist(toEntity(userInfoDto)));
+                flush(); // Sends the INSERTs in batches of hibernate.jdbc.batch_size
+                userEventOutbox.enqueueAll(userInfoDtos);
+            });
+            return true;
+        } catch (RuntimeException exception) {
+            log.warn("Bulk signup chunk of {} rows rolled back, retrying row by row: {}", userInfoDtos.size(), exception.getMessage());
+            userInfoDtos.forEach(userInfoDto -> userInfoDto.setUserId(null));
+            return false;
+        }
+    }
+
+    private BulkSignUpResultDto insertOne(long line, UserInfoDto userInfoDto) {
+        userInfoDto.setUserId(UserIdGenerator.newUserId());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(toEntity(userInfoDto));
+                flush();
+                userEventOutbox.enqueueAll(List.of(userInfoDto));
+            });
+            return created(line, userInfoDto);
+        } catch (DataIntegrityViolationException exception) {
+            userInfoDto.setUserId(null);
+            return result(line, userInfoDto, BulkSignUpResultDto.EXISTS, null); // The unique username is the only constraint a valid row can break
+        } catch (RuntimeException exception) {
+            userInfoDto.setUserId(null);
+            log.error("Bulk signup failed for user: {}", userInfoDto.getUsername(), exception);
+            return result(line, userInfoDto, BulkSignUpResultDto.FAILED, List.of("Could not be saved, retry later"));
+        }
+    }
+
+    // Raw EntityManager calls are not exception-translated, so map the unique-key failure here
+    private void flush() {
+        try {
+            entityManager.flush();
+        } catch (ConstraintViolationException exception) {
+            throw new DataIntegrityViolationException(exception.getMessage(), exception);
+        }
+        entityManager.clear(); // Nothing is read back, keep the persistence context empty
+    }
+
+    private static UserInfo toEntity(UserInfoDto userInfoDto) {
+        return UserInfo.builder()
+                .userId(userInfoDto.getUserId())
+                .username(userInfoDto.getUsername())
+                .password(userInfoDto.getPassword())
+                .roles(new HashSet<>()) // Same as single signup: no roles from the request
+                .build();
+    }
+
+    private static BulkSignUpResultDto created(long line, UserInfoDto userInfoDto) {
+        return BulkSignUpResultDto.builder()
+                .line(line)
+                .username(userInfoDto.getUsername())
+                .status(BulkSignUpResultDto.CREATED)
+                .userId(userInfoDto.getUserId())
+                .build();
+    }
+
+    private static BulkSignUpResultDto result(long line, UserInfoDto userInfoDto, String status, List<String> errors) {
+        return BulkSignUpResultDto.builder()
+                .line(line)
+                .username(userInfoDto == null ? null : userInfoDto.getUsername())
+                .status(status)
+                .errors(errors)
+                .build();
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT); // usernames compare case-insensitively in MySQL's default collation
+    }
+}
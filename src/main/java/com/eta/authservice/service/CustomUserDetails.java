@@ -1,31 +1,45 @@
 package com.eta.authservice.service;
 
-import com.eta.authservice.entities.UserInfo;
-import com.eta.authservice.entities.UserRole;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
-public class CustomUserDetails extends UserInfo implements UserDetails {
+// Immutable principal: ids, password hash and an interned authority list, with no JPA entity state behind it.
+// Instances are cached and shared between threads.
+public final class CustomUserDetails implements UserDetails {
 
+    private final String userId;
     private final String username;
     private final String password;
-    private final Collection<? extends GrantedAuthority> authorities; // Roles mapped to Spring Security authorities
+    private final Collection<? extends GrantedAuthority> authorities; // Shared list from AuthorityRegistry
+    private final boolean accountNonLocked; // False while a brute-force lockout is active
 
-    public CustomUserDetails(UserInfo byUsername){
-        this.username = byUsername.getUsername(); // Copy username
-        this.password = byUsername.getPassword(); // Copy password
+    // Principal rebuilt from verified JWT claims; carries no password
+    public CustomUserDetails(String userId, String username, Collection<? extends GrantedAuthority> authorities){
+        this(userId, username, null, authorities);
+    }
+
+    public CustomUserDetails(String userId, String username, String password, Collection<? extends GrantedAuthority> authorities){
+        this(userId, username, password, authorities, true);
+    }
 
-        List<GrantedAuthority> auths = new ArrayList<>();
+    private CustomUserDetails(String userId, String username, String password, Collection<? extends GrantedAuthority> authorities,
+                              boolean accountNonLocked){
+        this.userId = userId;
+        this.username = username;
+        this.password = password;
+        this.authorities = authorities;
+        this.accountNonLocked = accountNonLocked;
+    }
+
+    // Copy reporting a locked account; the cached instance itself is never mutated
+    public CustomUserDetails locked(){
+        return new CustomUserDetails(userId, username, password, authorities, false);
+    }
 
-        for (UserRole role : byUsername.getRoles()){
-            auths.add(new SimpleGrantedAuthority(role.getName().toUpperCase())); // Map roles to authorities
-        }
-        this.authorities = auths;
+    public String getUserId(){
+        return this.userId;
     }
 
     @Override
@@ -50,7 +64,7 @@ public class CustomUserDetails extends UserInfo implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true; // Account never locked (customize if needed)
+        return this.accountNonLocked; // DaoAuthenticationProvider checks this before verifying the password
     }
 
     @Override
@@ -0,0 +1,112 @@
+package com.eta.authservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Periodically deletes expired refresh tokens in small auto-committed chunks, so each statement holds row locks only
+// briefly and OLTP traffic on `tokens` is not stalled. A MySQL named lock ensures one instance runs it at a time.
+@Component
+public class ExpiredRefreshTokenReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredRefreshTokenReaper.class);
+
+    private static final String LOCK_NAME = "eta_auth_refresh_token_reaper";
+    private static final String DELETE_CHUNK =
+            "DELETE FROM tokens WHERE expiry_date < UTC_TIMESTAMP(6) ORDER BY expiry_date LIMIT ?"; // Walks idx_tokens_expiry_date
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter purgedCounter;
+    private final Timer runTimer;
+
+    @Value("${refresh-token.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${refresh-token.purge.pause-ms:100}")
+    private long pauseMs; // Breathing room between chunks for replication and concurrent writers
+
+    public ExpiredRefreshTokenReaper(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.purgedCounter = Counter.builder("auth.refresh_tokens.purged")
+                .description("Expired refresh tokens deleted by the reaper")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("auth.refresh_tokens.purge.duration")
+                .description("Duration of reaper runs that held the lock")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${refresh-token.purge.cron:0 */15 * * * *}")
+    public void purgeExpired() {
+        // One pinned connection: GET_LOCK is session-scoped, and auto-commit makes every chunk its own transaction
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!acquireLock(connection)) {
+                log.debug("Refresh token purge skipped, another instance holds the lock");
+                return null;
+            }
+            try {
+                runTimer.record(() -> purgeInChunks(connection));
+            } finally {
+                releaseLock(connection);
+            }
+            return null;
+        });
+    }
+
+    private void purgeInChunks(Connection connection) {
+        long total = 0;
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_CHUNK)) {
+            delete.setInt(1, batchSize);
+            int deleted;
+            do {
+                deleted = delete.executeUpdate();
+                total += deleted;
+                purgedCounter.increment(deleted);
+                if (deleted == batchSize && !pause()) break;
+            } while (deleted == batchSize); // A short chunk means nothing expired is left
+        } catch (SQLException exception) {
+            log.error("Refresh token purge failed after {} rows", total, exception);
+            return;
+        }
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt(); // Shutting down, stop between chunks
+            return false;
+        }
+    }
+
+    private static boolean acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) { // Don't wait, just skip
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.execute();
+        }
+    }
+}
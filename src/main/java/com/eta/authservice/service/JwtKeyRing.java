@@ -0,0 +1,209 @@
+package com.eta.authservice.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.jsonwebtoken.security.WeakKeyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Signing and verification keys, decoded once at startup and shared by every sign/parse call.
+// HS256 (default): the shared jwt.secret, nothing is published.
+// ES256: tokens carry a "kid" header, and all public keys, including previous ones still inside their overlap window,
+// are published as a JWKS so other services can verify tokens locally. Requires a configured key pair; a per-process
+// ephemeral key is only used when explicitly allowed, since its tokens fail on other instances and after a restart.
+// Tokens without a "kid" were issued by earlier versions with jwt.secret and are accepted while accept-legacy-hs256 is on.
+@Component
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final int P256_COORDINATE_BYTES = 32;
+
+    private final SignatureAlgorithm algorithm;
+    private final String activeKeyId;
+    private final Key signingKey;
+    private final Map<String, Key> verificationKeys; // kid -> key, includes the active key
+    private final Key legacyKey; // For kid-less tokens, null when not accepted
+    private final Map<String, Object> jwks; // Immutable JWK Set document, built once
+
+    public JwtKeyRing(@Value("${jwt.signing.algorithm:HS256}") String algorithm,
+                      @Value("${jwt.secret}") String secret,
+                      @Value("${jwt.signing.key-id:}") String keyId,
+                      @Value("${jwt.signing.private-key:}") String privateKey,
+                      @Value("${jwt.signing.public-key:}") String publicKey,
+                      @Value("${jwt.signing.previous-public-keys:}") String[] previousPublicKeys,
+                      @Value("${jwt.signing.accept-legacy-hs256:true}") boolean acceptLegacyHs256,
+                      @Value("${jwt.signing.allow-ephemeral-key:false}") boolean allowEphemeralKey) {
+        this.algorithm = SignatureAlgorithm.forName(algorithm);
+        Map<String, Key> keys = new LinkedHashMap<>();
+        List<Map<String, Object>> jwkList = new ArrayList<>();
+
+        if (this.algorithm == SignatureAlgorithm.HS256) {
+            this.signingKey = hmacKey(secret); // Fails fast on a secret shorter than 256 bits
+            this.activeKeyId = keyId.isBlank() ? "hs256" : keyId; // Never derived from the secret
+            keys.put(activeKeyId, signingKey);
+            this.legacyKey = acceptLegacyHs256 ? signingKey : null; // Same secret the kid-less tokens were signed with
+        } else if (this.algorithm == SignatureAlgorithm.ES256) {
+            if (privateKey.isBlank() && !allowEphemeralKey) {
+                throw new IllegalStateException("jwt.signing.algorithm=ES256 requires jwt.signing.private-key and "
+                        + "jwt.signing.public-key (set jwt.signing.allow-ephemeral-key=true for local development only)");
+            }
+            KeyPair keyPair = privateKey.isBlank() ? ephemeralKeyPair() : new KeyPair(
+                    decodePublicKey(publicKey), decodePrivateKey(privateKey));
+            this.signingKey = keyPair.getPrivate();
+            this.activeKeyId = keyId.isBlank() ? fingerprint(keyPair.getPublic().getEncoded()) : keyId;
+            keys.put(activeKeyId, keyPair.getPublic());
+            jwkList.add(toJwk(activeKeyId, (ECPublicKey) keyPair.getPublic()));
+
+            for (String entry : previousPublicKeys) {
+                if (entry.isBlank()) continue;
+                int separator = entry.indexOf(':'); // "kid:base64 DER", base64 never contains ':'
+                if (separator <= 0) throw new IllegalArgumentException("jwt.signing.previous-public-keys entries must be kid:key");
+                String previousKeyId = entry.substring(0, separator).trim();
+                PublicKey previousKey = decodePublicKey(entry.substring(separator + 1));
+                keys.put(previousKeyId, previousKey);
+                jwkList.add(toJwk(previousKeyId, (ECPublicKey) previousKey));
+            }
+            this.legacyKey = acceptLegacyHs256 ? legacyHmacKeyOrNull(secret) : null;
+        } else {
+            throw new IllegalArgumentException("Unsupported jwt.signing.algorithm " + algorithm + ", expected ES256 or HS256");
+        }
+
+        this.verificationKeys = Map.copyOf(keys);
+        this.jwks = Map.of("keys", List.copyOf(jwkList));
+        log.info("JWT signing with {} key '{}', {} verification key(s), legacy HS256 tokens {}",
+                this.algorithm.getValue(), activeKeyId, verificationKeys.size(), legacyKey != null ? "accepted" : "rejected");
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String keyId = header.getKeyId();
+        Key key = keyId == null ? legacyKey : verificationKeys.get(keyId);
+        if (key == null) throw new SignatureException("Unknown JWT key id " + keyId);
+        return key; // jjwt rejects a header alg that does not match the key type, so HS256 with a public key fails
+    }
+
+    private static Key hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Key legacyHmacKeyOrNull(String secret) {
+        try {
+            return hmacKey(secret);
+        } catch (WeakKeyException exception) {
+            log.warn("jwt.secret is too short for HS256, tokens issued without a key id will be rejected");
+            return null;
+        }
+    }
+
+    private static KeyPair ephemeralKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            log.warn("jwt.signing.allow-ephemeral-key is on, using an ephemeral ES256 key: tokens will not survive a restart "
+                    + "and will not verify across instances");
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("EC P-256 not available", exception); // Mandatory in every JRE
+        }
+    }
+
+    private static PrivateKey decodePrivateKey(String pemOrBase64) {
+        try {
+            return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(decodeDer(pemOrBase64)));
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalArgumentException("jwt.signing.private-key is not a PKCS#8 EC key", exception);
+        }
+    }
+
+    private static PublicKey decodePublicKey(String pemOrBase64) {
+        if (pemOrBase64.isBlank()) throw new IllegalArgumentException("jwt.signing.public-key is required with a private key");
+        try {
+            return KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(decodeDer(pemOrBase64)));
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalArgumentException("JWT public key is not an X.509 EC key", exception);
+        }
+    }
+
+    // Accepts PEM or bare base64 DER
+    private static byte[] decodeDer(String pemOrBase64) {
+        String base64 = pemOrBase64.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static Map<String, Object> toJwk(String keyId, ECPublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", SignatureAlgorithm.ES256.getValue());
+        jwk.put("x", BASE64_URL.encodeToString(coordinate(key.getW().getAffineX())));
+        jwk.put("y", BASE64_URL.encodeToString(coordinate(key.getW().getAffineY())));
+        return Collections.unmodifiableMap(jwk); // Keeps member order in the JSON
+    }
+
+    // Unsigned, left-padded to the curve size as RFC 7518 requires
+    private static byte[] coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length == P256_COORDINATE_BYTES) return bytes;
+        byte[] padded = new byte[P256_COORDINATE_BYTES];
+        int length = Math.min(bytes.length, P256_COORDINATE_BYTES);
+        System.arraycopy(bytes, bytes.length - length, padded, P256_COORDINATE_BYTES - length, length);
+        return padded;
+    }
+
+    private static String fingerprint(byte[] encodedKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(encodedKey);
+            return BASE64_URL.encodeToString(Arrays.copyOf(digest, 12)); // Stable, non-secret key id
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("SHA-256 not available", exception);
+        }
+    }
+}
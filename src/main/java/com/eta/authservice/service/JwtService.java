@@ -1,45 +1,97 @@
 package com.eta.authservice.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SecurityException;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.time.Clock;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    private final String SECRET_KEY;
-    private final long jwtExpiration;
+    public static final String ROLES_CLAIM = "roles"; // Authority names embedded at issue time
+    public static final String USER_ID_CLAIM = "uid"; // UserInfo primary key
 
-    public JwtService(@Value("${jwt.secret}") String secretKey, @Value("${jwt.expiration}") long jwtExpirationMs) {
-        this.SECRET_KEY = Base64.getEncoder().encodeToString(secretKey.getBytes()); // Encode secret key in Base64
-        this.jwtExpiration = jwtExpirationMs; // Token expiration in ms
-    }
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final int MAX_CACHED_ROLE_SETS = 256; // Distinct role combinations are few; stop caching past this
+    private static final int MAX_POOLED_SIGNERS = Runtime.getRuntime().availableProcessors() * 2; // Signing is CPU-bound; more rarely run at once
+
+    private final JwtKeyRing keyRing; // Keys decoded once at startup
+    private final AuthorityRegistry authorityRegistry;
+    private final Clock clock;
+    private final long jwtExpirationSeconds; // NumericDate claims have second resolution
+    private final JwtParser jwtParser; // Immutable and thread-safe, built once
+    private final byte[] encodedHeader; // base64url({"alg":..,"kid":..}) followed by '.', identical for every token
+    private final BlockingQueue<Signer> signers = new ArrayBlockingQueue<>(MAX_POOLED_SIGNERS); // Mac/Signature are not thread-safe but reusable
+    private final Map<List<GrantedAuthority>, String> rolesClaimJson = new ConcurrentHashMap<>(); // Pre-serialized "roles":[..] per interned authority list
+    private final Cache<String, Claims> claimsCache; // Verified claims keyed by raw token, evicted at the token's exp
+    private final Timer signTimer;
+    private final Timer verifyTimer; // Signature checks only, cache hits are not timed
 
-    private Key getSignKey(){
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes); // Get signing key for HMAC SHA256
+    public JwtService(JwtKeyRing keyRing, AuthorityRegistry authorityRegistry, Clock clock, @Value("${jwt.expiration}") long jwtExpirationMs,
+                      @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheMaxSize, MeterRegistry meterRegistry) {
+        this.keyRing = keyRing;
+        this.authorityRegistry = authorityRegistry;
+        this.clock = clock;
+        this.jwtExpirationSeconds = TimeUnit.MILLISECONDS.toSeconds(jwtExpirationMs); // Token expiration in ms
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyRing) // Picks the verification key by the token's kid header
+                .setClock(() -> new Date(clock.millis())) // Expiry checked against the injected clock
+                .build();
+        this.encodedHeader = encodeHeader(keyRing);
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize) // Bound memory regardless of token volume
+                .expireAfter(new ClaimsExpiry(clock)) // Drop each entry exactly when its token expires
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis())) // Eviction runs on the same clock as exp
+                .recordStats() // Hit/miss/eviction counters
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwtClaims"); // Publish cache.gets{result=hit|miss} etc.
+        this.signTimer = Timer.builder("auth.jwt.sign")
+                .description("Time to issue an access token")
+                .tag("algorithm", keyRing.getAlgorithm().getValue())
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("auth.jwt.verify")
+                .description("Time to parse and verify an access token")
+                .tag("algorithm", keyRing.getAlgorithm().getValue())
+                .register(meterRegistry);
     }
 
-    private Claims extractAllClaims(String token) {
+    private Claims parseClaims(String token) {
+        long startedAt = System.nanoTime();
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSignKey())
-                    .build()
+            return jwtParser
                     .parseClaimsJws(token)
                     .getBody(); // Parse and return JWT claims
         } catch (SecurityException | MalformedJwtException exception) {
@@ -48,9 +100,26 @@ public class JwtService {
             return null; // Token expired
         } catch (Exception exception) {
             return null; // Any other unexpected exception
+        } finally {
+            verifyTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
     }
 
+    // Returns verified claims, parsing and checking the signature only on the first sight of a token.
+    // Invalid tokens are never cached, so each one is re-verified (and rejected) on every call. A hit is re-checked
+    // against exp, so a token is never served past its expiry even before eviction has run. Revocation is not
+    // cached here: callers check it on every request.
+    // The returned Claims instance is shared between callers and must be treated as read-only.
+    public Claims extractAllClaims(String token) {
+        if (token == null) return null;
+        Claims claims = claimsCache.get(token, this::parseClaims);
+        if (claims != null && isTokenExpired(claims)) {
+            claimsCache.invalidate(token);
+            return null; // Token expired
+        }
+        return claims;
+    }
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver){
         Claims claims = extractAllClaims(token);
         if (claims == null) return null; // Invalid token
@@ -65,30 +134,195 @@ public class JwtService {
         return extractClaim(token, Claims::getExpiration); // Get expiration date from token
     }
 
-    private Boolean isTokenExpired(String token){
-        Date expiration = extractExpiration(token);
+    // True when the token was issued by a version that embeds authorities, so it can authenticate without a DB lookup
+    public boolean hasEmbeddedAuthorities(Claims claims){
+        return claims != null && claims.get(ROLES_CLAIM) instanceof Collection<?>;
+    }
+
+    // True when the token was issued no longer than maxAgeMs ago
+    public boolean isIssuedWithin(Claims claims, long maxAgeMs){
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null && clock.millis() - issuedAt.getTime() <= maxAgeMs;
+    }
+
+    // Builds the principal from verified claims alone; caller must have checked hasEmbeddedAuthorities
+    public UserDetails extractUserDetails(Claims claims){
+        Collection<?> roles = claims.get(ROLES_CLAIM, Collection.class);
+        return new CustomUserDetails(claims.get(USER_ID_CLAIM, String.class), claims.getSubject(),
+                authorityRegistry.forRoleNames(roles)); // Interned list, no per-request authority objects
+    }
+
+    private Boolean isTokenExpired(Claims claims){
+        Date expiration = claims.getExpiration();
         if (expiration == null) return true; // Treat null as expired/invalid
-        return expiration.before(new Date()); // Check if token is expired
+        return expiration.getTime() < clock.millis(); // Check if token is expired
     }
 
     public Boolean validateToken(String token, UserDetails userDetails){
-        String username = extractUsername(token);
-        if (username == null) return false; // Invalid token
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token)); // Validate token
+        return validateToken(extractAllClaims(token), userDetails);
+    }
+
+    public Boolean validateToken(Claims claims, UserDetails userDetails){
+        if (claims == null) return false; // Invalid token
+        String username = claims.getSubject();
+        if (username == null) return false; // Token without subject
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(claims)); // Validate token
     }
 
-    private String createToken(Map<String, Object> extraClaims, String username){
-        return Jwts.builder()
-                .setClaims(extraClaims)
-                .setSubject(username)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration)) // Set expiration
-                .signWith(getSignKey(), SignatureAlgorithm.HS256) // Sign with HMAC SHA256
-                .compact(); // Build token
+    private String createToken(String rolesJson, String userId, String username){
+        long startedAt = System.nanoTime();
+        String token = buildToken(rolesJson, userId, username);
+        signTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
+    // Writes the compact JWS directly: the header is pre-encoded, the payload is a short hand-written JSON object,
+    // and the signer is a pooled, already initialised Mac or Signature. The result is a standard token any JWT library reads.
+    private String buildToken(String rolesJson, String userId, String username){
+        long nowSeconds = TimeUnit.MILLISECONDS.toSeconds(clock.millis());
+        StringBuilder payload = new StringBuilder(160).append('{');
+        if (rolesJson != null) payload.append(rolesJson).append(',');
+        if (userId != null) appendJsonMember(payload, USER_ID_CLAIM, userId).append(',');
+        appendJsonMember(payload, Claims.ID, newTokenId()).append(','); // Revocation handle
+        appendJsonMember(payload, Claims.SUBJECT, username)
+                .append(",\"").append(Claims.ISSUED_AT).append("\":").append(nowSeconds)
+                .append(",\"").append(Claims.EXPIRATION).append("\":").append(nowSeconds + jwtExpirationSeconds) // Set expiration
+                .append('}');
+
+        byte[] encodedPayload = BASE64_URL.encode(payload.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] signingInput = new byte[encodedHeader.length + encodedPayload.length];
+        System.arraycopy(encodedHeader, 0, signingInput, 0, encodedHeader.length);
+        System.arraycopy(encodedPayload, 0, signingInput, encodedHeader.length, encodedPayload.length);
+        String signature = BASE64_URL.encodeToString(sign(signingInput));
+
+        return new String(signingInput, StandardCharsets.US_ASCII) + '.' + signature; // Build token
     }
 
     public String generateToken(String username){
-        Map<String, Object> extraClaims = new HashMap<>();
-        return createToken(extraClaims, username); // Generate JWT for user
+        return createToken(null, null, username); // Generate JWT for user
+    }
+
+    public String generateToken(UserDetails userDetails){
+        String userId = userDetails instanceof CustomUserDetails customUserDetails ? customUserDetails.getUserId() : null; // Embed user id
+        return createToken(rolesClaimJson(userDetails.getAuthorities()), userId, userDetails.getUsername()); // Generate JWT usable by the stateless filter path
+    }
+
+    // 128 random bits: unique per token, not a secret, so a fast non-cryptographic source is enough
+    private static String newTokenId(){
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] bytes = ByteBuffer.allocate(16).putLong(random.nextLong()).putLong(random.nextLong()).array();
+        return BASE64_URL.encodeToString(bytes);
+    }
+
+    // "roles":["ROLE_USER",..], serialized once per distinct role set. Keyed by AuthorityRegistry's sorted, interned list,
+    // so a Set and a List of the same authorities share one entry and the claim is the same whatever the caller passes.
+    private String rolesClaimJson(Collection<? extends GrantedAuthority> authorities){
+        if (authorities instanceof List<?>){
+            String cached = rolesClaimJson.get(authorities); // Principals already hold the interned list: no allocation
+            if (cached != null) return cached;
+        }
+        List<GrantedAuthority> interned = authorityRegistry.forAuthorities(authorities);
+        String cached = rolesClaimJson.get(interned);
+        if (cached != null) return cached;
+
+        StringBuilder json = new StringBuilder(32).append('"').append(ROLES_CLAIM).append("\":[");
+        boolean first = true;
+        for (GrantedAuthority authority : interned){
+            if (!first) json.append(',');
+            appendJsonString(json, authority.getAuthority()); // Embed authorities
+            first = false;
+        }
+        String serialized = json.append(']').toString();
+        if (rolesClaimJson.size() < MAX_CACHED_ROLE_SETS){
+            rolesClaimJson.putIfAbsent(interned, serialized); // Immutable key, shared with every principal of this combination
+        }
+        return serialized;
+    }
+
+    private byte[] sign(byte[] signingInput){
+        Signer signer = signers.poll();
+        try {
+            if (signer == null) signer = newSigner(); // Pool empty under a burst: build one
+            byte[] signature = signer.sign(signingInput);
+            signers.offer(signer); // Dropped when the pool is full, so a burst does not leave every instance pooled
+            return signature;
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("JWT signing failed", exception);
+        }
+    }
+
+    private Signer newSigner() throws GeneralSecurityException {
+        if (keyRing.getAlgorithm() == SignatureAlgorithm.HS256){
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(keyRing.getSigningKey().getEncoded(), "HmacSHA256"));
+            return mac::doFinal; // doFinal resets the Mac for the next token
+        }
+        Signature signature = Signature.getInstance("SHA256withECDSAinP1363Format"); // Raw R||S, as JWS requires
+        signature.initSign((PrivateKey) keyRing.getSigningKey());
+        return input -> {
+            signature.update(input);
+            return signature.sign(); // sign() resets to the initialised state
+        };
+    }
+
+    private static byte[] encodeHeader(JwtKeyRing keyRing){
+        StringBuilder header = new StringBuilder(64).append('{');
+        appendJsonMember(header, "alg", keyRing.getAlgorithm().getValue()).append(',');
+        appendJsonMember(header, "kid", keyRing.getActiveKeyId()).append('}'); // Lets verifiers pick the key from the JWKS
+        return (BASE64_URL.encodeToString(header.toString().getBytes(StandardCharsets.UTF_8)) + '.').getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static StringBuilder appendJsonMember(StringBuilder json, String name, String value){
+        json.append('"').append(name).append("\":");
+        return appendJsonString(json, value);
+    }
+
+    private static StringBuilder appendJsonString(StringBuilder json, String value){
+        json.append('"');
+        for (int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            switch (c){
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                default -> {
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c)); // Control characters
+                    else json.append(c);
+                }
+            }
+        }
+        return json.append('"');
+    }
+
+    @FunctionalInterface
+    private interface Signer {
+        byte[] sign(byte[] signingInput) throws GeneralSecurityException;
+    }
+
+    // Per-entry lifetime derived from the token's own exp claim
+    private static final class ClaimsExpiry implements Expiry<String, Claims> {
+
+        private final Clock clock;
+
+        ClaimsExpiry(Clock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) return 0L; // No exp: do not keep it around
+            long remainingMs = expiration.getTime() - clock.millis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration; // Same token, same exp
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration; // Reads never extend the lifetime
+        }
     }
 }
@@ -1,60 +1,46 @@
 package com.eta.authservice.service;
 
-import com.eta.authservice.entities.RefreshToken;
-import com.eta.authservice.entities.UserInfo;
-import com.eta.authservice.repository.RefreshTokenRepository;
-import com.eta.authservice.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class RefreshTokenService {
 
-    @Autowired
-    private UserRepository userRepository; // Repository to fetch user info
+    private static final Duration REFRESH_TOKEN_TTL = Duration.ofDays(7);
 
-    @Autowired
-    private RefreshTokenRepository refreshTokenRepository; // Repository to manage refresh tokens
+    private final RefreshTokenStore refreshTokenStore; // In-memory token family index with write-behind persistence
+    private final Clock clock;
 
-    public RefreshToken createRefreshToken(String username){
-
-        UserInfo extractedUserInfo = userRepository.findByUsername(username); // Fetch user details by username
-
-        Optional<RefreshToken> existingToken =
-                refreshTokenRepository.findByUserInfo(extractedUserInfo); // Check if a refresh token already exists
-
-        if (existingToken.isPresent()) {
-            RefreshToken token = existingToken.get(); // Get the existing token
-            token.setToken(UUID.randomUUID().toString()); // Generate new token string
-            token.setExpiryDate(Instant.now().plus(Duration.ofDays(7))); // Extend expiry by 7 days
-            token.setUserInfo(extractedUserInfo); // Link token to user
-            return refreshTokenRepository.save(token); // Save updated token
-        }
+    public RefreshTokenService(RefreshTokenStore refreshTokenStore, Clock clock) {
+        this.refreshTokenStore = refreshTokenStore;
+        this.clock = clock;
+    }
 
-        RefreshToken refreshToken = RefreshToken.builder()
-                .token(UUID.randomUUID().toString()) // Create token string
-                .expiryDate(Instant.now().plus(Duration.ofDays(7))) // Set expiry date
-                .userInfo(extractedUserInfo) // Link token to user
-                .build();
+    // Issues a refresh token for an already authenticated user as a new token family, leaving the user's other sessions alone.
+    // Takes the ids from the caller's principal, so no user lookup is needed; persistence is a single insert.
+    // Returns the raw token for the client.
+    public String createRefreshToken(String userId, String username){
+        return refreshTokenStore.create(userId, username, clock.instant().plus(REFRESH_TOKEN_TTL));
+    }
 
-        return refreshTokenRepository.save(refreshToken); // Save new token
+    // Exchanges a refresh token for its successor. The presented token stops working; presenting it again revokes the family.
+    public Optional<RefreshTokenStore.Rotation> rotate(String token){
+        RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(token, clock.instant().plus(REFRESH_TOKEN_TTL));
+        return switch (rotation.status()) {
+            case ROTATED -> Optional.of(rotation);
+            case EXPIRED -> throw new RuntimeException("Refresh token is expired. Please login again...!"); // Notify client
+            case INVALID, REUSED -> Optional.empty();
+        };
     }
 
-    public Optional<RefreshToken> findByToken(String token){
-        return refreshTokenRepository.findByToken(token); // Retrieve refresh token by value
+    public boolean revoke(String token, String userId){
+        return refreshTokenStore.revokeFamilyOf(token, userId); // Ends this session only
     }
 
-    public RefreshToken verifyExpiration(RefreshToken token){
-        if (token.getExpiryDate().isBefore(Instant.now())){
-            refreshTokenRepository.delete(token); // Delete expired token
-            throw new RuntimeException(token.getToken() + " Refresh token is expired. Please login again...!"); // Notify client
-        }
-        return token; // Return valid token
+    public void revokeAll(String userId){
+        refreshTokenStore.revokeAllForUser(userId); // Ends every session of the user
     }
 }
@@ -0,0 +1,370 @@
+package com.eta.authservice.service;
+
+import com.eta.authservice.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory index of refresh-token families (one per login session/device), with MySQL as the durable copy.
+// A raw token is "<familyId>.<secret>": the family id gives an O(1) lookup, and only SHA-256 of the whole token is stored.
+// Every refresh rotates the family to a new token; presenting any earlier token of the family is treated as theft and
+// revokes the whole family.
+// Reads are served from memory (falling back to the DB on a miss); writes are applied in memory immediately and
+// persisted asynchronously, coalesced per family. Tokens issued in the last flush interval are lost if the process dies,
+// which only forces those users to log in again. A rotation is persisted as a compare-and-set from the hash the row held
+// when it was read, never as an upsert, so no instance can re-create a family another one revoked or fork one it rotated:
+// when the update matches no row, the local branch is discarded and the family revoked. An instance holding a stale copy
+// may still accept a revoked or superseded token once, but the refresh token it hands out dies with the next flush.
+@Component
+public class RefreshTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final int FAMILY_ID_BYTES = 16; // 22 chars encoded
+    private static final int FAMILY_ID_LENGTH = 22;
+    private static final int SECRET_BYTES = 32; // 256 bits of entropy, so a fast hash is sufficient at rest
+
+    private static final Comparator<Session> EXPIRY_ORDER =
+            Comparator.comparing(Session::expiryDate).thenComparing(Session::familyId); // Soonest expiry first
+
+    public record Session(String familyId, String tokenHash, String userId, String username, Instant expiryDate) {
+        public boolean isExpired(Instant now) {
+            return expiryDate.isBefore(now);
+        }
+    }
+
+    public enum RotationStatus { ROTATED, INVALID, EXPIRED, REUSED }
+
+    // On ROTATED, session is the family's new state and rawToken the token to hand back to the client
+    public record Rotation(RotationStatus status, Session session, String rawToken) {
+        static Rotation of(RotationStatus status) {
+            return new Rotation(status, null, null);
+        }
+    }
+
+    // A null session means "delete the family's row"; a null persistedHash means the family has no row yet
+    private record PendingWrite(String familyId, Session session, String persistedHash) {
+        static PendingWrite deletion(String familyId) {
+            return new PendingWrite(familyId, null, null);
+        }
+    }
+
+    private final ConcurrentHashMap<String, Session> sessionsByFamily = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Session> sessionsByExpiry = new ConcurrentSkipListSet<>(EXPIRY_ORDER);
+    private final ConcurrentHashMap<String, PendingWrite> pendingWrites = new ConcurrentHashMap<>(); // Latest write per family wins
+    private final ReentrantLock flushLock = new ReentrantLock(); // One flush at a time; not synchronized, which would pin a virtual thread across the JDBC calls
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Clock clock;
+    private final int maxEntries; // Beyond this the soonest-expiring sessions are served from the DB instead
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter reuseCounter;
+
+    public RefreshTokenStore(RefreshTokenRepository refreshTokenRepository, Clock clock,
+                             @Value("${refresh-token.store.max-entries:500000}") int maxEntries, MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.hitCounter = Counter.builder("auth.refresh_tokens.lookups").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("auth.refresh_tokens.lookups").tag("result", "miss").register(meterRegistry);
+        this.reuseCounter = Counter.builder("auth.refresh_tokens.reuse_detected")
+                .description("Families revoked because a rotated-out token was presented")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh_tokens.cached", sessionsByFamily, ConcurrentHashMap::size).register(meterRegistry);
+        Gauge.builder("auth.refresh_tokens.pending_writes", pendingWrites, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    public static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest); // 64 chars, fits the tokens.token column
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 not available", exception); // Mandatory in every JRE
+        }
+    }
+
+    // Starts a new family (a new device/session) for the user and returns its first raw token
+    public String create(String userId, String username, Instant expiryDate) {
+        String familyId = randomBase64(FAMILY_ID_BYTES);
+        String rawToken = newRawToken(familyId);
+        Session session = new Session(familyId, hash(rawToken), userId, username, expiryDate);
+
+        sessionsByFamily.put(familyId, session);
+        sessionsByExpiry.add(session);
+        pendingWrites.put(familyId, new PendingWrite(familyId, session, null));
+        enforceCapacity();
+        return rawToken;
+    }
+
+    // Single-use exchange: a valid current token is replaced by a new one in the same family
+    public Rotation rotate(String rawToken, Instant newExpiryDate) {
+        String familyId = familyIdOf(rawToken);
+        if (familyId == null) return Rotation.of(RotationStatus.INVALID); // Malformed or pre-family token
+
+        String presentedHash = hash(rawToken);
+        Session current = currentSession(familyId);
+        if (current == null) return Rotation.of(RotationStatus.INVALID);
+
+        if (!hashesEqual(current.tokenHash(), presentedHash)) {
+            String owner = current.username();
+            current = reconcileWithDatabase(familyId, presentedHash); // Our copy may be stale if another instance rotated
+            if (current == null) {
+                revoke(familyId);
+                reuseCounter.increment();
+                log.warn("Refresh token reuse detected for user {}, session family revoked", owner);
+                return Rotation.of(RotationStatus.REUSED);
+            }
+        }
+
+        if (current.isExpired(clock.instant())) {
+            revoke(familyId);
+            return Rotation.of(RotationStatus.EXPIRED);
+        }
+
+        String newRawToken = newRawToken(familyId);
+        Session next = new Session(familyId, hash(newRawToken), current.userId(), current.username(), newExpiryDate);
+        Session expected = current;
+        boolean[] swapped = {false};
+        sessionsByFamily.compute(familyId, (id, existing) -> {
+            if (existing != null && !existing.tokenHash().equals(expected.tokenHash())) return existing; // Lost a race
+            if (existing != null) sessionsByExpiry.remove(existing);
+            sessionsByExpiry.add(next);
+            swapped[0] = true;
+            return next;
+        });
+        if (!swapped[0]) {
+            // The same token was exchanged concurrently: only one holder can be legitimate
+            revoke(familyId);
+            reuseCounter.increment();
+            return Rotation.of(RotationStatus.REUSED);
+        }
+
+        if (!queueRotation(next, expected.tokenHash())) {
+            // Revoked while this rotation was in flight: the revocation wins
+            if (sessionsByFamily.remove(familyId, next)) sessionsByExpiry.remove(next);
+            return Rotation.of(RotationStatus.INVALID);
+        }
+        enforceCapacity();
+        return new Rotation(RotationStatus.ROTATED, next, newRawToken);
+    }
+
+    // Logout of one session: only the family's owner can end it
+    public boolean revokeFamilyOf(String rawToken, String userId) {
+        String familyId = familyIdOf(rawToken);
+        if (familyId == null) return false;
+        Session session = currentSession(familyId);
+        if (session == null || !session.userId().equals(userId)) return false;
+        revoke(familyId);
+        return true;
+    }
+
+    // Logout everywhere. Scans the in-memory index, which is acceptable for a rare, user-initiated operation.
+    // Holds the flush lock, so no write of the user's families can be in flight and land after the delete.
+    public void revokeAllForUser(String userId) {
+        flushLock.lock();
+        try {
+            for (Session session : sessionsByFamily.values()) {
+                if (session.userId().equals(userId)) revoke(session.familyId());
+            }
+            pendingWrites.replaceAll((familyId, write) -> write.session() != null && write.session().userId().equals(userId)
+                    ? PendingWrite.deletion(familyId) : write); // Evicted, not yet flushed; a rotation racing this sees the revocation
+            refreshTokenRepository.deleteByUserId(userId); // Families only present in the DB
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void revoke(String familyId) {
+        Session removed = sessionsByFamily.remove(familyId);
+        if (removed != null) sessionsByExpiry.remove(removed);
+        pendingWrites.put(familyId, PendingWrite.deletion(familyId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int loaded = 0;
+        for (RefreshTokenRepository.SessionView view :
+                refreshTokenRepository.findActiveSessions(clock.instant(), PageRequest.of(0, maxEntries))) {
+            adopt(toSession(view));
+            loaded++;
+        }
+        log.info("Warm-loaded {} refresh token families", loaded);
+    }
+
+    // Drops expired sessions from memory; DB rows are left to the purge job
+    @Scheduled(fixedDelayString = "${refresh-token.store.eviction-interval-ms:30000}")
+    public void evictExpired() {
+        Instant now = clock.instant();
+        Session oldest;
+        while ((oldest = firstOrNull()) != null && oldest.isExpired(now)) {
+            sessionsByExpiry.remove(oldest);
+            sessionsByFamily.remove(oldest.familyId(), oldest);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${refresh-token.write-behind.interval-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            for (String familyId : pendingWrites.keySet()) {
+                PendingWrite write = pendingWrites.remove(familyId);
+                if (write == null) continue;
+                try {
+                    if (!persist(write)) discardConflicting(write); // One statement, its own transaction
+                } catch (RuntimeException exception) {
+                    pendingWrites.merge(familyId, write, RefreshTokenStore::retryBehind); // Retry next round, under any newer write
+                    log.warn("Write-behind of refresh token family {} failed, will retry", familyId, exception);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush(); // Persist whatever is still buffered before the process exits
+    }
+
+    // False when the row no longer holds what this instance last saw
+    private boolean persist(PendingWrite write) {
+        if (write.session() == null) {
+            refreshTokenRepository.deleteByFamilyId(write.familyId());
+            return true;
+        }
+        Session session = write.session();
+        if (write.persistedHash() == null) {
+            return refreshTokenRepository.insertSession(session.familyId(), session.userId(), session.tokenHash(), session.expiryDate()) == 1;
+        }
+        return refreshTokenRepository.rotateSession(session.familyId(), write.persistedHash(), session.tokenHash(), session.expiryDate()) == 1;
+    }
+
+    // Another instance revoked the family, or rotated the same token: either way this instance's branch must not survive
+    private void discardConflicting(PendingWrite write) {
+        revoke(write.familyId()); // Drops the local copy and any newer local rotation, and deletes the row if it still exists
+        reuseCounter.increment();
+        log.warn("Refresh token family of user {} was revoked or rotated elsewhere, local rotation discarded", write.session().username());
+    }
+
+    // Queues the family's new state. Coalesced writes keep the hash the row still holds; a queued revocation always stands.
+    private boolean queueRotation(Session next, String previousHash) {
+        boolean[] queued = {true};
+        pendingWrites.compute(next.familyId(), (familyId, pending) -> {
+            if (pending == null) return new PendingWrite(familyId, next, previousHash);
+            if (pending.session() == null) {
+                queued[0] = false;
+                return pending;
+            }
+            return new PendingWrite(familyId, next, pending.persistedHash());
+        });
+        return queued[0];
+    }
+
+    // Merges a failed write back under whatever was queued for the family while it was in flight
+    private static PendingWrite retryBehind(PendingWrite newer, PendingWrite failed) {
+        if (failed.session() == null) return failed; // A revocation always stands
+        if (newer.session() == null) return newer;
+        return new PendingWrite(newer.familyId(), newer.session(), failed.persistedHash()); // The row still holds what the failed write expected
+    }
+
+    // Memory first, then a not-yet-flushed write, then the DB
+    private Session currentSession(String familyId) {
+        Session session = sessionsByFamily.get(familyId);
+        if (session != null) {
+            hitCounter.increment();
+            return session;
+        }
+        PendingWrite pending = pendingWrites.get(familyId);
+        if (pending != null) {
+            return pending.session(); // Evicted from memory before being flushed; null if revoked
+        }
+
+        missCounter.increment();
+        Session persisted = refreshTokenRepository.findSessionByFamilyId(familyId).map(RefreshTokenStore::toSession).orElse(null);
+        if (persisted != null) adopt(persisted);
+        return persisted;
+    }
+
+    // Returns the DB state if it matches the presented token and nothing newer is pending locally, otherwise null
+    private Session reconcileWithDatabase(String familyId, String presentedHash) {
+        if (pendingWrites.containsKey(familyId)) return null; // Our copy is the newest one
+        Session persisted = refreshTokenRepository.findSessionByFamilyId(familyId).map(RefreshTokenStore::toSession).orElse(null);
+        if (persisted == null || !hashesEqual(persisted.tokenHash(), presentedHash)) return null;
+        adopt(persisted);
+        return persisted;
+    }
+
+    private void adopt(Session session) {
+        sessionsByFamily.compute(session.familyId(), (familyId, existing) -> {
+            if (existing != null) sessionsByExpiry.remove(existing);
+            sessionsByExpiry.add(session);
+            return session;
+        });
+        enforceCapacity();
+    }
+
+    private void enforceCapacity() {
+        while (sessionsByFamily.size() > maxEntries) {
+            Session evicted = sessionsByExpiry.pollFirst();
+            if (evicted == null) break;
+            sessionsByFamily.remove(evicted.familyId(), evicted); // Still valid in the DB, found again through read-through
+        }
+    }
+
+    private Session firstOrNull() {
+        try {
+            return sessionsByExpiry.first();
+        } catch (NoSuchElementException exception) {
+            return null; // Emptied concurrently
+        }
+    }
+
+    private static String newRawToken(String familyId) {
+        return familyId + "." + randomBase64(SECRET_BYTES);
+    }
+
+    private static String familyIdOf(String rawToken) {
+        if (rawToken == null || rawToken.length() <= FAMILY_ID_LENGTH || rawToken.charAt(FAMILY_ID_LENGTH) != '.') return null;
+        return rawToken.substring(0, FAMILY_ID_LENGTH);
+    }
+
+    private static String randomBase64(int bytes) {
+        byte[] buffer = new byte[bytes];
+        SECURE_RANDOM.nextBytes(buffer);
+        return BASE64_URL.encodeToString(buffer);
+    }
+
+    private static boolean hashesEqual(String expected, String presented) {
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII), presented.getBytes(StandardCharsets.US_ASCII)); // Constant time
+    }
+
+    private static Session toSession(RefreshTokenRepository.SessionView view) {
+        return new Session(view.getFamilyId(), view.getTokenHash(), view.getUserId(), view.getUsername(), view.getExpiryDate());
+    }
+}
@@ -0,0 +1,71 @@
+package com.eta.authservice.service;
+
+import com.eta.authservice.response.TokenIntrospectionDto;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+// Answers "is this access token valid, and for whom" for callers that cannot verify tokens themselves.
+// Signature and expiry come from JwtService (claims cache), revocation from the in-memory filter, and the user
+// and roles from the cached user lookup, so a batch costs no DB round trips in the common case.
+@Service
+@RequiredArgsConstructor
+public class TokenIntrospectionService {
+
+    private final JwtService jwtService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final Clock clock;
+
+    public List<TokenIntrospectionDto> introspect(List<String> tokens) {
+        List<TokenIntrospectionDto> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(introspect(token));
+        }
+        return results;
+    }
+
+    public TokenIntrospectionDto introspect(String token) {
+        Claims claims = jwtService.extractAllClaims(token); // Null when tampered, malformed or expired
+        if (claims == null || claims.getExpiration() == null || claims.getSubject() == null) return inactive();
+        if (tokenRevocationService.isRevoked(claims)) return inactive(); // Logged out
+
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(claims.getSubject()); // Cached; roles reflect current state
+        } catch (UsernameNotFoundException exception) {
+            return inactive(); // User deleted since issue
+        }
+        if (!jwtService.validateToken(claims, userDetails)) return inactive();
+
+        return TokenIntrospectionDto.builder()
+                .active(true)
+                .sub(userDetails.getUsername())
+                .uid(userDetails instanceof CustomUserDetails customUserDetails ? customUserDetails.getUserId() : null)
+                .roles(userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .iat(claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() / 1000 : null)
+                .exp(claims.getExpiration().getTime() / 1000)
+                .build();
+    }
+
+    // Seconds a caller may reuse the whole batch result: until the first active token expires
+    public long cacheableForSeconds(List<TokenIntrospectionDto> results, long defaultSeconds) {
+        long nowSeconds = clock.millis() / 1000;
+        long seconds = defaultSeconds;
+        for (TokenIntrospectionDto result : results) {
+            if (result.isActive()) seconds = Math.min(seconds, Math.max(0L, result.getExp() - nowSeconds));
+        }
+        return seconds;
+    }
+
+    private static TokenIntrospectionDto inactive() {
+        return TokenIntrospectionDto.builder().active(false).build();
+    }
+}
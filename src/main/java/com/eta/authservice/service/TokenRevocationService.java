@@ -0,0 +1,236 @@
+package com.eta.authservice.service;
+
+import com.eta.authservice.entities.RevokedToken;
+import com.eta.authservice.entities.UserTokenCutoff;
+import com.eta.authservice.repository.RevokedTokenRepository;
+import com.eta.authservice.repository.UserTokenCutoffRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Access-token revocation, by token id (logout) or by a per-user "not before" instant (logout everywhere).
+// Revoked ids live in MySQL; each instance keeps a Bloom filter of them, so the common not-revoked case is a few hash
+// probes with no I/O, and only filter hits (real or false positive) are confirmed against the DB.
+// Revocations made by other instances are picked up by a periodic incremental read of rows revoked since the previous
+// one. The filter is only rebuilt from the whole table at startup, after the purge job (which is when ids of expired
+// tokens can be dropped), or when incremental additions outgrow its capacity. Per-user cutoffs are few and kept in plain
+// maps, by user id and by username for tokens issued before the uid claim.
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Incremental reads start this far before the previous one, covering clock skew between instances and
+    // transactions that committed after the previous read with an earlier timestamp. Re-reading a row is harmless.
+    private static final Duration INCREMENTAL_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserTokenCutoffRepository userTokenCutoffRepository;
+    private final Clock clock;
+    private final Duration accessTokenLifetime;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final Cache<String, Boolean> confirmedLookups; // DB answers for filter hits, so replaying one token costs one query
+    private final Map<String, Instant> recentLocalRevocations = new ConcurrentHashMap<>(); // Re-applied to a filter built from a snapshot that missed them
+    private final Counter filterHitCounter;
+    private final Counter revokedCounter;
+
+    private final AtomicInteger filterEntries = new AtomicInteger(); // Ids in the current filter, checked against filterCapacity
+
+    private volatile BloomFilter<CharSequence> revokedIds;
+    private volatile int filterCapacity;
+    private volatile Instant loadedUpTo; // Start of the last successful read, null until the first rebuild
+    private volatile Map<String, Instant> notBeforeByUserId = Map.of();
+    private volatile Map<String, Instant> notBeforeByUsername = Map.of(); // Lower-cased, as the user cache keys usernames
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  UserTokenCutoffRepository userTokenCutoffRepository,
+                                  Clock clock,
+                                  @Value("${jwt.expiration}") long jwtExpirationMs,
+                                  @Value("${auth.revocation.filter.expected-entries:100000}") int expectedEntries,
+                                  @Value("${auth.revocation.filter.false-positive-rate:0.001}") double falsePositiveRate,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userTokenCutoffRepository = userTokenCutoffRepository;
+        this.clock = clock;
+        this.accessTokenLifetime = Duration.ofMillis(jwtExpirationMs);
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filterCapacity = expectedEntries;
+        this.revokedIds = newFilter(filterCapacity);
+        this.confirmedLookups = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .build();
+        this.filterHitCounter = Counter.builder("auth.revocation.filter_hits")
+                .description("Revocation checks that needed a DB lookup")
+                .register(meterRegistry);
+        this.revokedCounter = Counter.builder("auth.revocation.rejected")
+                .description("Requests rejected with a revoked access token")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(Claims claims) {
+        if (isBeforeUserCutoff(claims) || isRevokedId(claims.getId())) {
+            revokedCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    // Logout of one access token, effective until the token would have expired anyway
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) return; // Issued before token ids existed, expires on its own shortly
+        Instant expiresAt = claims.getExpiration().toInstant();
+        revokedTokenRepository.save(RevokedToken.builder().jti(jti).expiresAt(expiresAt).revokedAt(clock.instant()).build());
+        recentLocalRevocations.put(jti, expiresAt);
+        putRevokedId(jti);
+        confirmedLookups.put(jti, Boolean.TRUE);
+    }
+
+    // Logout everywhere: every access token of the user issued before now stops working
+    public void revokeAllForUser(String userId, String username) {
+        if (userId == null) throw new IllegalArgumentException("A user id is required to revoke a user's tokens"); // It keys the cutoff row
+        Instant notBefore = clock.instant().truncatedTo(ChronoUnit.SECONDS); // iat has second resolution
+        UserTokenCutoff cutoff = UserTokenCutoff.builder()
+                .userId(userId)
+                .username(username)
+                .notBefore(notBefore)
+                .expiresAt(notBefore.plus(accessTokenLifetime))
+                .build();
+        userTokenCutoffRepository.save(cutoff);
+        applyCutoffs(List.of(cutoff));
+    }
+
+    // Full load: at startup and after the purge, the only times ids can leave the filter
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Instant now = clock.instant();
+        List<String> activeIds = revokedTokenRepository.findActiveJtis(now);
+        int capacity = Math.max(expectedEntries, activeIds.size() * 2); // Headroom for revocations until the next rebuild
+        BloomFilter<CharSequence> rebuilt = newFilter(capacity);
+        activeIds.forEach(rebuilt::put);
+
+        recentLocalRevocations.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        recentLocalRevocations.keySet().forEach(rebuilt::put); // Committed after the snapshot was read
+        filterCapacity = capacity;
+        filterEntries.set(activeIds.size() + recentLocalRevocations.size());
+        revokedIds = rebuilt; // Expired ids are simply not carried over
+
+        List<UserTokenCutoff> cutoffs = userTokenCutoffRepository.findActive(now);
+        Map<String, Instant> byUserId = new HashMap<>();
+        Map<String, Instant> byUsername = new HashMap<>();
+        for (UserTokenCutoff cutoff : cutoffs) {
+            byUserId.put(cutoff.getUserId(), cutoff.getNotBefore());
+            if (cutoff.getUsername() != null) byUsername.put(normalize(cutoff.getUsername()), cutoff.getNotBefore());
+        }
+        notBeforeByUserId = Map.copyOf(byUserId);
+        notBeforeByUsername = Map.copyOf(byUsername);
+        loadedUpTo = now;
+        log.debug("Revocation filter rebuilt with {} token ids and {} user cutoffs", activeIds.size(), cutoffs.size());
+    }
+
+    // Incremental: only rows written since the previous read, added to the current filter and maps
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-interval-ms:10000}", initialDelayString = "${auth.revocation.refresh-interval-ms:10000}")
+    public void refresh() {
+        Instant since = loadedUpTo;
+        if (since == null || filterEntries.get() > filterCapacity) {
+            rebuild(); // Not loaded yet, or the filter is past its sizing and its false-positive rate climbing
+            return;
+        }
+        Instant now = clock.instant();
+        Instant from = since.minus(INCREMENTAL_OVERLAP);
+        List<String> revokedIdsSince = revokedTokenRepository.findActiveJtisRevokedSince(from, now);
+        revokedIdsSince.forEach(this::putRevokedId);
+        List<UserTokenCutoff> cutoffsSince = userTokenCutoffRepository.findActiveSetSince(from, now);
+        if (!cutoffsSince.isEmpty()) applyCutoffs(cutoffsSince);
+        loadedUpTo = now;
+        log.debug("Revocation refresh added {} token ids and {} user cutoffs", revokedIdsSince.size(), cutoffsSince.size());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        int tokens = revokedTokenRepository.deleteExpired(now);
+        int cutoffs = userTokenCutoffRepository.deleteExpired(now);
+        if (tokens + cutoffs > 0) log.info("Purged {} revoked token ids and {} user cutoffs past expiry", tokens, cutoffs);
+        rebuild(); // Drops the purged ids from the filter
+    }
+
+    // Uses the uid claim; tokens issued before it existed carry only sub, so those are matched by username
+    private boolean isBeforeUserCutoff(Claims claims) {
+        String userId = claims.get(JwtService.USER_ID_CLAIM, String.class);
+        Instant notBefore;
+        if (userId != null) {
+            notBefore = notBeforeByUserId.get(userId);
+        } else {
+            Map<String, Instant> byUsername = notBeforeByUsername;
+            notBefore = byUsername.isEmpty() || claims.getSubject() == null ? null : byUsername.get(normalize(claims.getSubject()));
+        }
+        if (notBefore == null) return false;
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null || issuedAt.toInstant().isBefore(notBefore);
+    }
+
+    // Copy-on-write: rare writes, lock-free reads. Synchronized so a local logout-all and a refresh cannot drop each other's entry.
+    private synchronized void applyCutoffs(List<UserTokenCutoff> cutoffs) {
+        Map<String, Instant> byUserId = new HashMap<>(notBeforeByUserId);
+        Map<String, Instant> byUsername = new HashMap<>(notBeforeByUsername);
+        for (UserTokenCutoff cutoff : cutoffs) {
+            byUserId.merge(cutoff.getUserId(), cutoff.getNotBefore(), TokenRevocationService::later);
+            if (cutoff.getUsername() != null) {
+                byUsername.merge(normalize(cutoff.getUsername()), cutoff.getNotBefore(), TokenRevocationService::later);
+            }
+        }
+        notBeforeByUserId = Map.copyOf(byUserId);
+        notBeforeByUsername = Map.copyOf(byUsername);
+    }
+
+    private void putRevokedId(String jti) {
+        if (revokedIds.put(jti)) filterEntries.incrementAndGet(); // put is false when the id (or a collision) was already there
+        confirmedLookups.invalidate(jti); // A false positive checked earlier may have cached "not revoked"
+    }
+
+    private boolean isRevokedId(String jti) {
+        if (jti == null || !revokedIds.mightContain(jti)) return false; // Common case: definitely not revoked
+        filterHitCounter.increment();
+        return confirmedLookups.get(jti, revokedTokenRepository::existsById);
+    }
+
+    private BloomFilter<CharSequence> newFilter(int capacity) {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.US_ASCII), capacity, falsePositiveRate);
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT); // MySQL username lookups are case-insensitive
+    }
+}
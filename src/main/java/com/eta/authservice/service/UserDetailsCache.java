@@ -0,0 +1,73 @@
+package com.eta.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Function;
+
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, CustomUserDetails> users; // Read-through cache of known users
+    private final Cache<String, Boolean> missingUsers; // Negative cache of unknown usernames, null when disabled
+
+    public UserDetailsCache(@Value("${auth.user-cache.max-size:10000}") long maxSize,
+                            @Value("${auth.user-cache.ttl:10m}") Duration ttl,
+                            @Value("${auth.user-cache.negative.enabled:true}") boolean negativeCacheEnabled,
+                            @Value("${auth.user-cache.negative.max-size:50000}") long negativeMaxSize,
+                            @Value("${auth.user-cache.negative.ttl:1m}") Duration negativeTtl,
+                            MeterRegistry meterRegistry) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl) // Upper bound on staleness for role changes made directly in the database
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "userDetails"); // Hit rate, evictions and size via actuator
+
+        if (negativeCacheEnabled) {
+            this.missingUsers = Caffeine.newBuilder()
+                    .maximumSize(negativeMaxSize) // Bounded so random-username floods cannot grow the heap
+                    .expireAfterWrite(negativeTtl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, missingUsers, "userDetailsMissing");
+        } else {
+            this.missingUsers = null;
+        }
+    }
+
+    // Returns the cached user or loads it; a null from the loader is not cached in the positive cache
+    public CustomUserDetails get(String username, Function<String, CustomUserDetails> loader) {
+        return users.get(key(username), ignored -> loader.apply(username));
+    }
+
+    public boolean isKnownMissing(String username) {
+        return missingUsers != null && missingUsers.getIfPresent(key(username)) != null;
+    }
+
+    public void markMissing(String username) {
+        if (missingUsers != null) {
+            missingUsers.put(key(username), Boolean.TRUE);
+        }
+    }
+
+    // Drops both positive and negative entries; called on signup and password upgrade. Roles are only changed in the
+    // database, outside this service, so a role change reaches cached principals within auth.user-cache.ttl.
+    public void evict(String username) {
+        String key = key(username);
+        users.invalidate(key);
+        if (missingUsers != null) {
+            missingUsers.invalidate(key);
+        }
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT); // MySQL username lookups are case-insensitive
+    }
+}
@@ -1,35 +1,50 @@
 package com.eta.authservice.service;
 
+import com.eta.authservice.auth.LoginAttemptTracker;
 import com.eta.authservice.entities.UserInfo;
-import com.eta.authservice.eventProducer.UserInfoDtoProducer;
+import com.eta.authservice.eventProducer.UserEventOutbox;
 import com.eta.authservice.model.UserInfoDto;
 import com.eta.authservice.repository.UserRepository;
+import com.eta.authservice.utils.UserIdGenerator;
 import com.eta.authservice.utils.ValidationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.List;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository; // Repository to fetch/save user data
     private final PasswordEncoder passwordEncoder; // For password hashing
 
-    private final UserInfoDtoProducer userInfoDtoProducer;
+    private final UserEventOutbox userEventOutbox; // Signup events, published to Kafka after commit
+    private final UserDetailsCache userDetailsCache; // Avoids a DB round trip per login and per filtered request
+    private final TransactionTemplate transactionTemplate; // Keeps the transaction (and its connection) off the BCrypt work
+    private final LoginAttemptTracker loginAttemptTracker; // Brute-force lockout state
+    private final AuthorityRegistry authorityRegistry; // Shared authority lists per role combination
 
     // Constructor injection
-    public UserDetailsServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, UserInfoDtoProducer userInfoDtoProducer) {
+    public UserDetailsServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, UserEventOutbox userEventOutbox,
+                                  UserDetailsCache userDetailsCache, PlatformTransactionManager transactionManager,
+                                  LoginAttemptTracker loginAttemptTracker, AuthorityRegistry authorityRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.userInfoDtoProducer = userInfoDtoProducer;
+        this.userEventOutbox = userEventOutbox;
+        this.userDetailsCache = userDetailsCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loginAttemptTracker = loginAttemptTracker;
+        this.authorityRegistry = authorityRegistry;
     }
 
     private static final Logger log = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
@@ -37,28 +52,61 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.debug("Entering loadUserByUsername method..."); // Debug entry
-        UserInfo user = userRepository.findByUsername(username); // Fetch user from DB
-        if (user == null) {
+        if (userDetailsCache.isKnownMissing(username)) {
+            throw new UsernameNotFoundException("User not found!"); // Recently looked up and absent, skip the DB
+        }
+
+        CustomUserDetails userDetails = userDetailsCache.get(username, this::fetchUserDetails); // Cache first, DB on miss
+        if (userDetails == null) {
             log.error("Username not found: {}", username); // Log if user not found
+            userDetailsCache.markMissing(username);
             throw new UsernameNotFoundException("User not found!");
         }
-        log.info("User authenticated successfully: {}", username); // Log successful fetch
-        return new CustomUserDetails(user); // Map to Spring Security UserDetails
+        return loginAttemptTracker.isLocked(username) ? userDetails.locked() : userDetails; // Lock state is never cached
+    }
+
+    private CustomUserDetails fetchUserDetails(String username) {
+        List<UserRepository.AuthRow> rows = userRepository.findAuthRowsByUsername(username); // Fetch user and role names from DB
+        if (rows.isEmpty()) return null;
+
+        List<String> roleNames = new ArrayList<>(rows.size());
+        for (UserRepository.AuthRow row : rows) {
+            if (row.getRoleName() != null) roleNames.add(row.getRoleName()); // Null for a user without roles
+        }
+        UserRepository.AuthRow user = rows.get(0);
+        log.info("User loaded successfully: {}", username); // Log successful fetch
+        return new CustomUserDetails(user.getUserId(), user.getUsername(), user.getPassword(),
+                authorityRegistry.forRoleNames(roleNames)); // Map to Spring Security UserDetails
     }
 
-    private UserInfo checkIfUserAlreadyExist(UserInfoDto userInfoDto){
-        return userRepository.findByUsername(userInfoDto.getUsername()); // Check if user exists
+    // Called by DaoAuthenticationProvider after a successful login when the stored hash uses outdated parameters
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (userRepository.updatePasswordByUsername(user.getUsername(), newPassword) == 0) {
+            return user; // User vanished concurrently, nothing to upgrade
+        }
+        userDetailsCache.evict(user.getUsername()); // Cached entry still holds the old hash
+        log.info("Password hash upgraded for user: {}", user.getUsername());
+
+        String userId = user instanceof CustomUserDetails customUserDetails ? customUserDetails.getUserId() : null;
+        return new CustomUserDetails(userId, user.getUsername(), newPassword, user.getAuthorities());
     }
 
-    public Boolean signUp(UserInfoDto userInfoDto){
+    private boolean checkIfUserAlreadyExist(UserInfoDto userInfoDto){
+        return userRepository.existsByUsername(userInfoDto.getUsername()); // Check if user exists
+    }
+
+    // Returns the new user's principal, built from what signup already has, or null when the username is taken
+    public CustomUserDetails signUp(UserInfoDto userInfoDto){
         ValidationUtil.validateUserAttributes(userInfoDto); // Validate user input
 
-        if (Objects.nonNull(checkIfUserAlreadyExist(userInfoDto))){
+        if (checkIfUserAlreadyExist(userInfoDto)){
             log.warn("User already exists: {}", userInfoDto.getUsername()); // Warn if duplicate user
-            return false;
+            return null;
         }
 
-        String userId = UUID.randomUUID().toString(); // Generate unique user ID
+        String userId = UserIdGenerator.newUserId(); // Time-ordered, appends to the primary key index
+        userInfoDto.setUserId(userId); // Event key, keeps per-user ordering on one partition
         userInfoDto.setPassword(passwordEncoder.encode(userInfoDto.getPassword())); // Hash password
 
         UserInfo userInfo = UserInfo.builder()
@@ -68,11 +116,14 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .roles(new HashSet<>()) // Initialize empty roles
                 .build();
 
-        userRepository.save(userInfo); // Persist new user
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.save(userInfo); // Persist new user
+            userEventOutbox.enqueue(userInfoDto); // User Service event, committed atomically with the user row
+        });
+        userDetailsCache.evict(userInfoDto.getUsername()); // Clear any negative entry for this username
         log.info("New user signed up successfully: {}", userInfoDto.getUsername()); // Log signup success
 
-        userInfoDtoProducer.sendEventToKafka(userInfoDto); // sending user info event to User Service by KAFKA
-
-        return true; // Signup successful
+        return new CustomUserDetails(userId, userInfo.getUsername(),
+                authorityRegistry.forRoles(userInfo.getRoles())); // Signup successful, no roles yet and no need to reload
     }
 }
@@ -0,0 +1,26 @@
+package com.eta.authservice.utils;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Time-ordered user ids: UUIDv7 (RFC 9562), a 48-bit Unix millisecond timestamp followed by 74 random bits.
+// New ids sort after existing ones, so inserts append to the right edge of the users primary key (and of every index
+// on user_id) instead of landing on random pages. Ids are not secrets; ThreadLocalRandom avoids the shared SecureRandom.
+public final class UserIdGenerator {
+
+    private UserIdGenerator() {} // Prevent instantiation
+
+    public static String newUserId() {
+        return newUuid(System.currentTimeMillis()).toString(); // Canonical form, same shape as the random UUIDs before
+    }
+
+    static UUID newUuid(long epochMillis) { // Package-private for tests
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificantBits = (epochMillis << 16)   // unix_ts_ms
+                | 0x7000L                                // version 7
+                | (random.nextLong() & 0x0FFFL);         // rand_a
+        long leastSignificantBits = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL)
+                | 0x8000_0000_0000_0000L;                // variant 10, rand_b
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
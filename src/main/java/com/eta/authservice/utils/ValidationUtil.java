@@ -2,87 +2,157 @@ package com.eta.authservice.utils;
 
 import com.eta.authservice.model.UserInfoDto;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 public final class ValidationUtil {
 
-    private static final List<String> BLACKLISTED_USERNAMES = Arrays.asList("admin", "user", "system", "root", "guest", "superuser"); // Reserved usernames
+    private static final Set<String> BLACKLISTED_USERNAMES = Set.of("admin", "user", "system", "root", "guest", "superuser"); // Reserved usernames, hashed lookup
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$"); // Compiled once, not per signup
 
     private static final int USERNAME_MIN_LENGTH = 3;
     private static final int USERNAME_MAX_LENGTH = 30;
     private static final int PASSWORD_MIN_LENGTH = 8;
     private static final int PASSWORD_MAX_LENGTH = 128;
 
+    private static final String USERNAME_LENGTH_MESSAGE = String.format("Username must be between %d and %d characters", USERNAME_MIN_LENGTH, USERNAME_MAX_LENGTH);
+    private static final String PASSWORD_MIN_LENGTH_MESSAGE = String.format("Password must be at least %d characters long", PASSWORD_MIN_LENGTH);
+    private static final String PASSWORD_MAX_LENGTH_MESSAGE = String.format("Password cannot exceed %d characters", PASSWORD_MAX_LENGTH);
+
     private ValidationUtil() {} // Prevent instantiation
 
     public static void validateUserAttributes(UserInfoDto userInfoDto) throws UserValidationException {
+        List<String> violations = findViolations(userInfoDto);
+        if (!violations.isEmpty()) {
+            throw new UserValidationException(violations); // Report every broken rule at once
+        }
+    }
+
+    // Returns every rule the user breaks, or an empty list when the input is valid
+    public static List<String> findViolations(UserInfoDto userInfoDto) {
         if (userInfoDto == null) {
-            throw new UserValidationException("User info cannot be null"); // Null check
+            return List.of("User info cannot be null"); // Null check
         }
 
         String username = safeTrim(userInfoDto.getUsername());
         String password = safeTrim(userInfoDto.getPassword());
 
-        validateUsername(username); // Validate username rules
-        validatePassword(password, username); // Validate password rules
+        List<String> violations = null; // Allocated lazily, valid input allocates nothing
+        violations = validateUsername(username, violations); // Validate username rules
+        violations = validatePassword(password, username, violations); // Validate password rules
+        return violations == null ? Collections.emptyList() : violations;
     }
 
     // Username validation logic
-    private static void validateUsername(String username) {
+    private static List<String> validateUsername(String username, List<String> violations) {
         if (username == null || username.isEmpty()) {
-            throw new UserValidationException("Username cannot be empty");
+            return addViolation(violations, "Username cannot be empty");
         }
 
         if (username.length() < USERNAME_MIN_LENGTH || username.length() > USERNAME_MAX_LENGTH) {
-            throw new UserValidationException(String.format("Username must be between %d and %d characters", USERNAME_MIN_LENGTH, USERNAME_MAX_LENGTH));
+            violations = addViolation(violations, USERNAME_LENGTH_MESSAGE);
         }
 
-        boolean isEmail = username.contains("@");
-
-        if (isEmail) {
-            if (!username.matches("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$")) {
-                throw new UserValidationException("Username must be a valid email address");
+        if (username.indexOf('@') >= 0) {
+            if (!EMAIL_PATTERN.matcher(username).matches()) {
+                violations = addViolation(violations, "Username must be a valid email address");
             }
         } else {
-            if (!username.matches("^[\\w.-]+$")) {
-                throw new UserValidationException("Username can only contain letters, numbers, underscores, dots, and hyphens");
+            if (!isUsernameCharacters(username)) {
+                violations = addViolation(violations, "Username can only contain letters, numbers, underscores, dots, and hyphens");
             }
 
             if (BLACKLISTED_USERNAMES.contains(username.toLowerCase(Locale.ROOT))) {
-                throw new UserValidationException("This username is not allowed"); // Prevent blacklisted names
+                violations = addViolation(violations, "This username is not allowed"); // Prevent blacklisted names
             }
         }
+        return violations;
     }
 
     // Password validation logic
-    private static void validatePassword(String password, String username) {
+    private static List<String> validatePassword(String password, String username, List<String> violations) {
         if (password == null || password.isEmpty()) {
-            throw new UserValidationException("Password cannot be empty");
+            return addViolation(violations, "Password cannot be empty");
         }
 
         if (password.length() < PASSWORD_MIN_LENGTH) {
-            throw new UserValidationException(
-                    String.format("Password must be at least %d characters long", PASSWORD_MIN_LENGTH)
-            );
+            violations = addViolation(violations, PASSWORD_MIN_LENGTH_MESSAGE);
         }
 
         if (password.length() > PASSWORD_MAX_LENGTH) {
-            throw new UserValidationException(
-                    String.format("Password cannot exceed %d characters", PASSWORD_MAX_LENGTH)
-            );
+            violations = addViolation(violations, PASSWORD_MAX_LENGTH_MESSAGE);
         }
 
-        if (!password.matches("^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[\\p{Punct}]).+$")) {
-            throw new UserValidationException(
+        if (!hasRequiredCharacterClasses(password)) {
+            violations = addViolation(violations,
                     "Password must include uppercase, lowercase, number, and special character" // Strong password requirement
             );
         }
 
-        if (username != null && password.toLowerCase(Locale.ROOT).contains(username.toLowerCase(Locale.ROOT))) {
-            throw new UserValidationException("Password cannot contain username"); // Prevent easy passwords
+        if (username != null && !username.isEmpty() && containsIgnoreCase(password, username)) {
+            violations = addViolation(violations, "Password cannot contain username"); // Prevent easy passwords
         }
+        return violations;
+    }
+
+    // Equivalent to ^[\w.-]+$ in a single pass
+    private static boolean isUsernameCharacters(String username) {
+        for (int i = 0; i < username.length(); i++) {
+            char c = username.charAt(i);
+            if (!(isAsciiLetterOrDigit(c) || c == '_' || c == '.' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Equivalent to ^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[\p{Punct}]).+$ in a single pass
+    private static boolean hasRequiredCharacterClasses(String password) {
+        boolean digit = false, lower = false, upper = false, punct = false;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (c >= '0' && c <= '9') digit = true;
+            else if (c >= 'a' && c <= 'z') lower = true;
+            else if (c >= 'A' && c <= 'Z') upper = true;
+            else if (isAsciiPunctuation(c)) punct = true;
+            else if (isLineTerminator(c)) return false; // '.' in the original pattern never matched these
+        }
+        return digit && lower && upper && punct;
+    }
+
+    // Case-insensitive substring search without lower-casing copies of either string
+    private static boolean containsIgnoreCase(String haystack, String needle) {
+        int last = haystack.length() - needle.length();
+        for (int i = 0; i <= last; i++) {
+            if (haystack.regionMatches(true, i, needle, 0, needle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    // Same set as \p{Punct}: !"#$%&'()*+,-./:;<=>?@[\]^_`{|}~
+    private static boolean isAsciiPunctuation(char c) {
+        return (c >= '!' && c <= '/') || (c >= ':' && c <= '@') || (c >= '[' && c <= '`') || (c >= '{' && c <= '~');
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static List<String> addViolation(List<String> violations, String message) {
+        List<String> result = violations == null ? new ArrayList<>(4) : violations;
+        result.add(message);
+        return result;
     }
 
     private static String safeTrim(String value) {
@@ -90,8 +160,21 @@ public final class ValidationUtil {
     }
 
     public static class UserValidationException extends RuntimeException {
+
+        private final List<String> violations;
+
         public UserValidationException(String message) {
             super(message); // Custom exception for validation errors
+            this.violations = List.of(message);
+        }
+
+        public UserValidationException(List<String> violations) {
+            super(String.join("; ", violations)); // All violations in one message
+            this.violations = List.copyOf(violations);
+        }
+
+        public List<String> getViolations() {
+            return violations;
         }
     }
 }
@@ -0,0 +1,137 @@
+package com.eta.authservice.auth;
+
+import com.eta.authservice.auth.BoundedPasswordEncoder.HashingCapacityExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest {
+
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1); // Every hash blocks until the test lets them finish
+    private final List<Thread> blockers = new ArrayList<>();
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        when(delegate.encode(any())).thenAnswer(call -> {
+            release.await();
+            return "hash:" + call.getArgument(0);
+        });
+        when(delegate.matches(any(), any())).thenAnswer(call -> {
+            release.await();
+            return true;
+        });
+        when(delegate.upgradeEncoding(any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        for (Thread blocker : blockers) blocker.join();
+        encoder.destroy();
+    }
+
+    @Test
+    void queuedWorkCompletesOnceAWorkerFrees() throws InterruptedException {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+        occupy(1, 1);
+        AtomicReference<String> result = new AtomicReference<>();
+        Thread queued = Thread.startVirtualThread(() -> result.set(encoder.encode("queued")));
+        awaitPool(1, 1);
+
+        release.countDown();
+        queued.join();
+
+        assertThat(result).hasValue("hash:queued");
+        assertThat(queueDepth()).isZero();
+        assertThat(meterRegistry.get("auth.password.hashing.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void saturatedPoolRejectsImmediately() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+        occupy(2, 1); // One hashing, one queued
+
+        assertThatThrownBy(() -> encoder.matches("Str0ng!Pass", "hash")).isInstanceOf(HashingCapacityExceededException.class);
+        assertThatThrownBy(() -> encoder.encode("Str0ng!Pass")).isInstanceOf(HashingCapacityExceededException.class);
+        assertThat(meterRegistry.get("auth.password.hashing.rejected").counter().count()).isEqualTo(2);
+        assertThat(encoder.upgradeEncoding("hash")).isFalse(); // The rehash waits for a quieter login
+    }
+
+    @Test
+    void encodeAllCancelsWhatItSubmittedWhenALaterSubmitIsRejected() {
+        encoder = new BoundedPasswordEncoder(delegate, 2, 2, meterRegistry);
+        occupy(3, 2); // Both workers busy, one of the two queue slots taken
+
+        assertThatThrownBy(() -> encoder.encodeAll(List.of("first", "second"))).isInstanceOf(HashingCapacityExceededException.class);
+
+        assertThat(queueDepth()).isEqualTo(1); // "first" was cancelled and its slot given back
+        release.countDown();
+        assertThat(encoder.encode("after")).isEqualTo("hash:after");
+        verify(delegate, never()).encode("first");
+    }
+
+    @Test
+    void encodeAllKeepsInputOrderAcrossWindows() {
+        encoder = new BoundedPasswordEncoder(delegate, 2, 2, meterRegistry);
+        release.countDown();
+
+        assertThat(encoder.encodeAll(List.of("a", "b", "c", "d", "e"))).containsExactly("hash:a", "hash:b", "hash:c", "hash:d", "hash:e");
+    }
+
+    @Test
+    void rejectionIsRecognisedThroughWrappers() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+        HashingCapacityExceededException rejection = new HashingCapacityExceededException("Password hashing capacity exhausted, retry later");
+
+        assertThat(BoundedPasswordEncoder.isCapacityExceeded(rejection)).isTrue();
+        assertThat(BoundedPasswordEncoder.isCapacityExceeded(new IllegalStateException("wrapped", rejection))).isTrue();
+        assertThat(BoundedPasswordEncoder.isCapacityExceeded(new IllegalStateException("unrelated"))).isFalse();
+    }
+
+    // Starts callers that hold the pool: the first `workers` run on the workers, the rest wait in the queue
+    private void occupy(int callers, int workers) {
+        for (int i = 0; i < callers; i++) {
+            String password = "blocker-" + i;
+            blockers.add(Thread.startVirtualThread(() -> encoder.encode(password)));
+        }
+        awaitPool(workers, callers - workers);
+    }
+
+    private void awaitPool(int active, int queued) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (activeWorkers() != active || queueDepth() != queued) {
+            if (System.nanoTime() > deadline) fail("Pool never reached %d active and %d queued", active, queued);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private double activeWorkers() {
+        return meterRegistry.get("auth.password.hashing.active").gauge().value();
+    }
+
+    private double queueDepth() {
+        return meterRegistry.get("auth.password.hashing.queue.depth").gauge().value();
+    }
+}
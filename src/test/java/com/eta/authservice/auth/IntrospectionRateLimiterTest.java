@@ -0,0 +1,33 @@
+package com.eta.authservice.auth;
+
+import com.eta.authservice.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntrospectionRateLimiterTest {
+
+    private final MutableClock clock = MutableClock.at("2026-01-01T00:00:00Z");
+    // 60 tokens a minute (one a second), at most 10 at once
+    private final IntrospectionRateLimiter limiter = new IntrospectionRateLimiter(clock, 60, 10, 100);
+
+    @Test
+    void budgetIsCountedInTokensPerCaller() {
+        assertThat(limiter.tryAcquire("gateway", 6)).isZero();
+        assertThat(limiter.tryAcquire("gateway", 4)).isZero(); // Burst used up
+        assertThat(limiter.tryAcquire("gateway", 3)).isEqualTo(TimeUnit.SECONDS.toNanos(3));
+        assertThat(limiter.tryAcquire("billing", 10)).isZero(); // Separate budget
+
+        clock.advance(Duration.ofSeconds(3));
+        assertThat(limiter.tryAcquire("gateway", 3)).isZero();
+    }
+
+    @Test
+    void batchLargerThanTheBurstIsChargedTheBurst() {
+        assertThat(limiter.tryAcquire("gateway", 100)).isZero();
+        assertThat(limiter.tryAcquire("gateway", 1)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,74 @@
+package com.eta.authservice.auth;
+
+import com.eta.authservice.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginAttemptTrackerTest {
+
+    private final MutableClock clock = MutableClock.at("2026-01-01T00:00:00Z");
+    private final LoginAttemptTracker tracker =
+            new LoginAttemptTracker(clock, 3, Duration.ofSeconds(30), Duration.ofMinutes(2), 1000);
+
+    @Test
+    void locksOnceTheThresholdIsReached() {
+        tracker.recordFailure("jane.doe");
+        tracker.recordFailure("jane.doe");
+        assertThat(tracker.isLocked("jane.doe")).isFalse();
+
+        tracker.recordFailure("jane.doe");
+
+        assertThat(tracker.isLocked("jane.doe")).isTrue();
+        assertThat(tracker.remainingLock("jane.doe")).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void lockCountsDownAndExpires() {
+        for (int i = 0; i < 3; i++) tracker.recordFailure("jane.doe");
+
+        clock.advance(Duration.ofSeconds(20));
+        assertThat(tracker.remainingLock("jane.doe")).isEqualTo(Duration.ofSeconds(10));
+
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(tracker.isLocked("jane.doe")).isFalse();
+        assertThat(tracker.remainingLock("jane.doe")).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void eachFurtherFailureDoublesTheLockUpToTheCap() {
+        for (int i = 0; i < 3; i++) tracker.recordFailure("jane.doe");
+
+        tracker.recordFailure("jane.doe");
+        assertThat(tracker.remainingLock("jane.doe")).isEqualTo(Duration.ofSeconds(60));
+        tracker.recordFailure("jane.doe");
+        assertThat(tracker.remainingLock("jane.doe")).isEqualTo(Duration.ofSeconds(120));
+        tracker.recordFailure("jane.doe");
+        assertThat(tracker.remainingLock("jane.doe")).isEqualTo(Duration.ofMinutes(2)); // Capped
+    }
+
+    @Test
+    void successResetsTheFailureStreak() {
+        tracker.recordFailure("jane.doe");
+        tracker.recordFailure("jane.doe");
+
+        tracker.recordSuccess("jane.doe");
+        tracker.recordFailure("jane.doe");
+        tracker.recordFailure("jane.doe");
+
+        assertThat(tracker.isLocked("jane.doe")).isFalse(); // Two failures, not four
+        tracker.recordFailure("jane.doe");
+        assertThat(tracker.isLocked("jane.doe")).isTrue();
+    }
+
+    @Test
+    void usernamesAreTrackedCaseInsensitivelyAndIndependently() {
+        for (int i = 0; i < 3; i++) tracker.recordFailure("Jane.Doe");
+
+        assertThat(tracker.isLocked("JANE.DOE")).isTrue();
+        assertThat(tracker.isLocked("john.doe")).isFalse();
+        assertThat(tracker.isLocked(null)).isFalse();
+    }
+}
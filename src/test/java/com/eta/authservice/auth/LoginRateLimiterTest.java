@@ -0,0 +1,60 @@
+package com.eta.authservice.auth;
+
+import com.eta.authservice.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTest {
+
+    private final MutableClock clock = MutableClock.at("2026-01-01T00:00:00Z");
+    // Per username: 10 a minute (one per 6 s), burst 5. Per IP: 60 a minute (one per second), burst 20.
+    private final LoginRateLimiter limiter = new LoginRateLimiter(clock, 10, 5, 60, 20, 1000);
+
+    @Test
+    void burstIsAllowedThenTheWaitIsOneInterval() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("jane.doe", "10.0.0.1")).as("attempt %d", i + 1).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("jane.doe", "10.0.0.1")).isEqualTo(TimeUnit.SECONDS.toNanos(6));
+    }
+
+    @Test
+    void bucketRefillsContinuously() {
+        for (int i = 0; i < 5; i++) limiter.tryAcquire("jane.doe", "10.0.0.1");
+
+        clock.advance(Duration.ofSeconds(4));
+        assertThat(limiter.tryAcquire("jane.doe", "10.0.0.1")).isEqualTo(TimeUnit.SECONDS.toNanos(2)); // Retry-After rounds this up
+
+        clock.advance(Duration.ofSeconds(2));
+        assertThat(limiter.tryAcquire("jane.doe", "10.0.0.1")).isZero(); // One attempt back
+        assertThat(limiter.tryAcquire("jane.doe", "10.0.0.1")).isEqualTo(TimeUnit.SECONDS.toNanos(6));
+
+        clock.advance(Duration.ofSeconds(30)); // Full again after burst * interval
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("jane.doe", "10.0.0.1")).isZero();
+        }
+    }
+
+    @Test
+    void usernamesAreLimitedCaseInsensitivelyAndIndependently() {
+        for (int i = 0; i < 5; i++) limiter.tryAcquire("Jane.Doe", "10.0.0.1");
+
+        assertThat(limiter.tryAcquire("JANE.DOE", "10.0.0.2")).isGreaterThan(0); // Same account from another address
+        assertThat(limiter.tryAcquire("john.doe", "10.0.0.1")).isZero();
+    }
+
+    @Test
+    void clientIpIsLimitedAcrossUsernames() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire("user" + i, "10.0.0.1")).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("user20", "10.0.0.1")).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.tryAcquire("user20", "10.0.0.2")).isZero();
+    }
+}
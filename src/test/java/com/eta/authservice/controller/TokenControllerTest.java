@@ -0,0 +1,77 @@
+package com.eta.authservice.controller;
+
+import com.eta.authservice.auth.BoundedPasswordEncoder.HashingCapacityExceededException;
+import com.eta.authservice.auth.LoginAttemptTracker;
+import com.eta.authservice.auth.LoginRateLimiter;
+import com.eta.authservice.request.AuthRequestDto;
+import com.eta.authservice.response.JwtResponseDto;
+import com.eta.authservice.service.JwtService;
+import com.eta.authservice.service.RefreshTokenService;
+import com.eta.authservice.service.TokenRevocationService;
+import com.eta.authservice.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenControllerTest {
+
+    private static final AuthRequestDto LOGIN = new AuthRequestDto("jane.doe", "Str0ng!Pass");
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final LoginRateLimiter loginRateLimiter = mock(LoginRateLimiter.class);
+    private final LoginAttemptTracker loginAttemptTracker = mock(LoginAttemptTracker.class);
+    private TokenController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new TokenController(authenticationManager, mock(RefreshTokenService.class), mock(JwtService.class),
+                mock(UserDetailsServiceImpl.class), mock(TokenRevocationService.class), loginRateLimiter, loginAttemptTracker);
+        ReflectionTestUtils.setField(controller, "hashingRetryAfterSeconds", "1");
+        when(loginAttemptTracker.remainingLock(any())).thenReturn(Duration.ZERO);
+    }
+
+    @Test
+    void saturatedHashingAnswers503WithoutCountingAFailure() {
+        when(authenticationManager.authenticate(any()))
+                .thenThrow(new HashingCapacityExceededException("Password hashing capacity exhausted, retry later"));
+
+        ResponseEntity<JwtResponseDto> response = controller.login(LOGIN, new MockHttpServletRequest());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        verify(loginAttemptTracker, never()).recordFailure(any());
+    }
+
+    @Test
+    void saturationWrappedBySpringSecurityIsStillA503() {
+        when(authenticationManager.authenticate(any())).thenThrow(new InternalAuthenticationServiceException("Authentication failed",
+                new HashingCapacityExceededException("Password hashing capacity exhausted, retry later")));
+
+        assertThat(controller.login(LOGIN, new MockHttpServletRequest()).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        verify(loginAttemptTracker, never()).recordFailure(any());
+    }
+
+    @Test
+    void wrongPasswordIsA401AndCountsTowardsTheLockout() {
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThat(controller.login(LOGIN, new MockHttpServletRequest()).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verify(loginAttemptTracker).recordFailure("jane.doe");
+    }
+}
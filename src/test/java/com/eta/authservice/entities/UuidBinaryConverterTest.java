@@ -0,0 +1,58 @@
+package com.eta.authservice.entities;
+
+import com.eta.authservice.utils.UserIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UuidBinaryConverterTest {
+
+    private final UuidBinaryConverter converter = new UuidBinaryConverter();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "6ccd780c-baba-1026-9564-5b8c656024db", // MySQL's UUID_TO_BIN example
+            "0190f3a4-5b6c-7d8e-9f00-112233445566", // Version 7
+            "00000000-0000-0000-0000-000000000000",
+            "ffffffff-ffff-ffff-ffff-ffffffffffff"
+    })
+    void roundTripsThroughBinary16(String uuid) {
+        byte[] column = converter.convertToDatabaseColumn(uuid);
+
+        assertThat(column).hasSize(16);
+        assertThat(converter.convertToEntityAttribute(column)).isEqualTo(uuid);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"6ccd780c-baba-1026-9564-5b8c656024db", "0190f3a4-5b6c-7d8e-9f00-112233445566"})
+    void bytesMatchUuidToBinWithoutTheSwapFlag(String uuid) {
+        // UUID_TO_BIN(x) is the hex digits in written order; native queries rely on it (RefreshTokenRepository.insertSession)
+        assertThat(converter.convertToDatabaseColumn(uuid)).isEqualTo(HexFormat.of().parseHex(uuid.replace("-", "")));
+    }
+
+    @Test
+    void generatedIdsRoundTrip() {
+        String userId = UserIdGenerator.newUserId();
+
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(userId))).isEqualTo(userId);
+    }
+
+    @Test
+    void upperCaseInputIsStoredAndReadBackCanonically() {
+        byte[] column = converter.convertToDatabaseColumn("6CCD780C-BABA-1026-9564-5B8C656024DB");
+
+        assertThat(converter.convertToEntityAttribute(column)).isEqualTo("6ccd780c-baba-1026-9564-5b8c656024db");
+    }
+
+    @Test
+    void nullsPassThroughAndNonUuidsAreRejected() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+        assertThatThrownBy(() -> converter.convertToDatabaseColumn("jane.doe")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.eta.authservice.eventProducer;
+
+import com.eta.authservice.MutableClock;
+import com.eta.authservice.entities.OutboxEvent;
+import com.eta.authservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserEventOutboxRelayTest {
+
+    private static final long SEND_TIMEOUT_MS = 10_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    private final MutableClock clock = MutableClock.at("2026-01-01T00:00:00Z");
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final UserInfoDtoProducer userInfoDtoProducer = mock(UserInfoDtoProducer.class);
+    private UserEventOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new UserEventOutboxRelay(outboxEventRepository, userInfoDtoProducer, new ObjectMapper(),
+                mock(PlatformTransactionManager.class), clock, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "batchSize", 200);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", SEND_TIMEOUT_MS);
+        ReflectionTestUtils.setField(relay, "maxBackoffMs", MAX_BACKOFF_MS);
+    }
+
+    @Test
+    void claimedRowsAreLeasedPastTheSendDeadlineAndDeletedOnceDelivered() {
+        when(outboxEventRepository.lockNextBatch(clock.instant(), 200)).thenReturn(List.of(event(1L, 0)));
+        when(userInfoDtoProducer.sendEventToKafka(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outboxEventRepository).leaseUntil(List.of(1L), clock.instant().plusMillis(SEND_TIMEOUT_MS).plusSeconds(30));
+        verify(outboxEventRepository).deleteByEventIdIn(List.of(1L));
+        verify(outboxEventRepository, never()).scheduleRetry(any(), anyInt(), any());
+    }
+
+    @Test
+    void failedSendBacksOffExponentiallyFromTheClock() {
+        clock.advance(Duration.ofMinutes(3));
+        when(outboxEventRepository.lockNextBatch(clock.instant(), 200)).thenReturn(List.of(event(1L, 2), event(2L, 19)));
+        when(userInfoDtoProducer.sendEventToKafka(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.relay();
+
+        verify(outboxEventRepository).scheduleRetry(1L, 3, clock.instant().plusMillis(800)); // 100 ms << 3
+        verify(outboxEventRepository).scheduleRetry(2L, 20, clock.instant().plusMillis(MAX_BACKOFF_MS)); // Capped
+        verify(outboxEventRepository, never()).deleteByEventIdIn(any());
+    }
+
+    @Test
+    void nothingDueMeansNoLease() {
+        relay.relay();
+
+        verify(outboxEventRepository).lockNextBatch(clock.instant(), 200);
+        verify(outboxEventRepository, never()).leaseUntil(any(), any());
+    }
+
+    private OutboxEvent event(long eventId, int attempts) {
+        Instant now = clock.instant();
+        return OutboxEvent.builder()
+                .eventId(eventId)
+                .aggregateId("0190f3a4-5b6c-7d8e-9f00-11223344556" + eventId)
+                .payload("{}")
+                .createdAt(now)
+                .attempts(attempts)
+                .nextAttemptAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.eta.authservice.service;
+
+import com.eta.authservice.repository.UserRoleRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class JwtKeyRingTest {
+
+    private static final String SECRET = "test-secret-that-is-long-enough-for-hs256-signing";
+
+    @Test
+    void es256TokenVerifiesWithThePublishedJwk() throws Exception {
+        KeyPair keyPair = newEcKeyPair();
+        JwtKeyRing keyRing = es256KeyRing(keyPair, new String[0], true);
+        String token = jwtService(keyRing).generateToken("jane.doe");
+
+        Map<String, Object> jwk = publishedJwk(keyRing, keyRing.getActiveKeyId());
+        Jws<Claims> jws = Jwts.parserBuilder().setSigningKey(toPublicKey(jwk)).build().parseClaimsJws(token);
+
+        assertThat(jws.getHeader().getKeyId()).isEqualTo(keyRing.getActiveKeyId());
+        assertThat(jws.getHeader().getAlgorithm()).isEqualTo("ES256");
+        assertThat(jws.getBody().getSubject()).isEqualTo("jane.doe");
+        assertThat(jwk).containsEntry("kty", "EC").containsEntry("crv", "P-256").containsEntry("alg", "ES256");
+    }
+
+    @Test
+    void previousKeyStaysPublishedAndVerifiable() throws Exception {
+        KeyPair previous = newEcKeyPair();
+        JwtKeyRing keyRing = es256KeyRing(newEcKeyPair(),
+                new String[]{"old-key:" + base64(previous.getPublic().getEncoded())}, true);
+        String oldToken = Jwts.builder()
+                .setHeaderParam("kid", "old-key")
+                .setSubject("jane.doe")
+                .signWith(previous.getPrivate(), SignatureAlgorithm.ES256)
+                .compact();
+
+        Claims claims = Jwts.parserBuilder().setSigningKeyResolver(keyRing).build().parseClaimsJws(oldToken).getBody();
+
+        assertThat(claims.getSubject()).isEqualTo("jane.doe");
+        assertThat(publishedJwk(keyRing, "old-key")).isNotNull();
+    }
+
+    @Test
+    void legacyTokenWithoutKeyIdIsAcceptedOnlyWhenEnabled() throws Exception {
+        String legacyToken = legacyHs256Token();
+        KeyPair keyPair = newEcKeyPair();
+
+        Claims claims = Jwts.parserBuilder().setSigningKeyResolver(es256KeyRing(keyPair, new String[0], true)).build()
+                .parseClaimsJws(legacyToken).getBody();
+        assertThat(claims.getSubject()).isEqualTo("jane.doe");
+
+        JwtKeyRing strict = es256KeyRing(keyPair, new String[0], false);
+        assertThatThrownBy(() -> Jwts.parserBuilder().setSigningKeyResolver(strict).build().parseClaimsJws(legacyToken))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void hs256ModeAlsoStopsAcceptingLegacyTokensWhenDisabled() {
+        String legacyToken = legacyHs256Token();
+
+        JwtKeyRing lenient = new JwtKeyRing("HS256", SECRET, "", "", "", new String[0], true, false);
+        assertThat(Jwts.parserBuilder().setSigningKeyResolver(lenient).build().parseClaimsJws(legacyToken).getBody().getSubject())
+                .isEqualTo("jane.doe");
+
+        JwtKeyRing strict = new JwtKeyRing("HS256", SECRET, "", "", "", new String[0], false, false);
+        assertThatThrownBy(() -> Jwts.parserBuilder().setSigningKeyResolver(strict).build().parseClaimsJws(legacyToken))
+                .isInstanceOf(JwtException.class);
+        String current = jwtService(strict).generateToken("jane.doe"); // Tokens with the kid are unaffected
+        assertThat(Jwts.parserBuilder().setSigningKeyResolver(strict).build().parseClaimsJws(current).getBody().getSubject())
+                .isEqualTo("jane.doe");
+    }
+
+    @Test
+    void hs256TokensCarryAKeyIdAndPublishNothing() {
+        JwtKeyRing keyRing = new JwtKeyRing("HS256", SECRET, "", "", "", new String[0], true, false);
+        String token = jwtService(keyRing).generateToken("jane.doe");
+
+        Jws<Claims> jws = Jwts.parserBuilder().setSigningKeyResolver(keyRing).build().parseClaimsJws(token);
+
+        assertThat(jws.getHeader().getKeyId()).isEqualTo("hs256");
+        assertThat((List<?>) keyRing.getJwks().get("keys")).isEmpty();
+    }
+
+    @Test
+    void es256WithoutConfiguredKeyFailsUnlessEphemeralKeysAreAllowed() {
+        assertThatThrownBy(() -> new JwtKeyRing("ES256", SECRET, "", "", "", new String[0], true, false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.signing.private-key");
+
+        JwtKeyRing ephemeral = new JwtKeyRing("ES256", SECRET, "", "", "", new String[0], true, true);
+        assertThat((List<?>) ephemeral.getJwks().get("keys")).hasSize(1);
+    }
+
+    // Signed with jwt.secret and no "kid" header, as earlier versions issued them
+    private static String legacyHs256Token() {
+        return Jwts.builder()
+                .setSubject("jane.doe")
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(5)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static JwtKeyRing es256KeyRing(KeyPair keyPair, String[] previousKeys, boolean acceptLegacy) {
+        return new JwtKeyRing("ES256", SECRET, "",
+                base64(keyPair.getPrivate().getEncoded()), base64(keyPair.getPublic().getEncoded()),
+                previousKeys, acceptLegacy, false);
+    }
+
+    private static JwtService jwtService(JwtKeyRing keyRing) {
+        return new JwtService(keyRing, new AuthorityRegistry(mock(UserRoleRepository.class)), Clock.systemUTC(),
+                TimeUnit.HOURS.toMillis(1), 100, new SimpleMeterRegistry());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> publishedJwk(JwtKeyRing keyRing, String keyId) {
+        return ((List<Map<String, Object>>) keyRing.getJwks().get("keys")).stream()
+                .filter(jwk -> keyId.equals(jwk.get("kid")))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // What a JWKS consumer does: rebuild the P-256 public key from the x/y coordinates
+    private static PublicKey toPublicKey(Map<String, Object> jwk) throws Exception {
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec("secp256r1"));
+        ECPoint point = new ECPoint(
+                new BigInteger(1, Base64.getUrlDecoder().decode((String) jwk.get("x"))),
+                new BigInteger(1, Base64.getUrlDecoder().decode((String) jwk.get("y"))));
+        return KeyFactory.getInstance("EC")
+                .generatePublic(new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class)));
+    }
+
+    private static KeyPair newEcKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    private static String base64(byte[] der) {
+        return Base64.getEncoder().encodeToString(der);
+    }
+}
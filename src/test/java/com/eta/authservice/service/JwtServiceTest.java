@@ -0,0 +1,186 @@
+package com.eta.authservice.service;
+
+import com.eta.authservice.MutableClock;
+import com.eta.authservice.repository.UserRoleRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-that-is-long-enough-for-hs256-signing";
+    private static final long EXPIRATION_MS = TimeUnit.HOURS.toMillis(1);
+
+    static Stream<Arguments> subjects() {
+        List<Arguments> arguments = new ArrayList<>();
+        for (String algorithm : List.of("HS256", "ES256")) {
+            for (String subject : List.of("jane.doe", "quote\"inside", "back\\slash", "tab\tnew\nline\u0001end",
+                    "unicode-jöhn-✓", "\"\\\"")) {
+                arguments.add(Arguments.of(algorithm, subject));
+            }
+        }
+        return arguments.stream();
+    }
+
+    // The hand-written JWS must be a standard token: jjwt parses it and reads back exactly what was put in
+    @ParameterizedTest
+    @MethodSource("subjects")
+    void issuedTokenRoundTripsThroughJjwt(String algorithm, String subject) {
+        JwtKeyRing keyRing = keyRing(algorithm);
+        AuthorityRegistry authorityRegistry = authorityRegistry();
+        JwtService jwtService = jwtService(keyRing, authorityRegistry);
+        CustomUserDetails user = new CustomUserDetails("5b0c8f0e-3f4a-4d7e-9b8a-0d6a1c2e3f40", subject,
+                authorityRegistry.forRoleNames(List.of("ROLE_USER", "ROLE_PREMIUM")));
+
+        String token = jwtService.generateToken(user);
+        Jws<Claims> jws = Jwts.parserBuilder().setSigningKeyResolver(keyRing).build().parseClaimsJws(token);
+        Claims claims = jws.getBody();
+
+        assertThat(jws.getHeader().getAlgorithm()).isEqualTo(algorithm);
+        assertThat(jws.getHeader().getKeyId()).isEqualTo(keyRing.getActiveKeyId());
+        assertThat(claims.getSubject()).isEqualTo(subject);
+        assertThat(claims.get(JwtService.USER_ID_CLAIM, String.class)).isEqualTo(user.getUserId());
+        assertThat(claims.get(JwtService.ROLES_CLAIM, List.class)).containsExactly("ROLE_PREMIUM", "ROLE_USER");
+        assertThat(claims.getId()).isNotBlank();
+        assertThat(claims.getExpiration().getTime() - claims.getIssuedAt().getTime()).isEqualTo(EXPIRATION_MS);
+        assertThat(jwtService.extractUsername(token)).isEqualTo(subject);
+    }
+
+    // JWS ES256 signatures are the raw 64-byte R||S (P1363) form, not ASN.1 DER
+    @ParameterizedTest
+    @ValueSource(strings = {"quote\"inside", "jane.doe"})
+    void es256SignatureIsP1363Encoded(String subject) {
+        JwtService jwtService = jwtService(keyRing("ES256"), authorityRegistry());
+
+        String token = jwtService.generateToken(subject);
+        byte[] signature = Base64.getUrlDecoder().decode(token.substring(token.lastIndexOf('.') + 1));
+
+        assertThat(signature).hasSize(64);
+    }
+
+    // Set or List, in any order: the same authorities give the same roles claim
+    @ParameterizedTest
+    @ValueSource(strings = {"HS256", "ES256"})
+    void rolesClaimDoesNotDependOnTheCollectionType(String algorithm) {
+        JwtKeyRing keyRing = keyRing(algorithm);
+        JwtService jwtService = jwtService(keyRing, authorityRegistry());
+        Set<GrantedAuthority> asSet = new LinkedHashSet<>(List.of(
+                new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+        List<GrantedAuthority> asList = List.of(
+                new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER"));
+
+        for (var authorities : List.of(asSet, asList, asSet)) {
+            String token = jwtService.generateToken(new CustomUserDetails("id", "jane.doe", authorities));
+            Claims claims = Jwts.parserBuilder().setSigningKeyResolver(keyRing).build().parseClaimsJws(token).getBody();
+            assertThat(claims.get(JwtService.ROLES_CLAIM, List.class)).containsExactly("ROLE_ADMIN", "ROLE_USER");
+        }
+    }
+
+    // Pooled signers are never shared between threads: every concurrently issued token verifies
+    @ParameterizedTest
+    @ValueSource(strings = {"HS256", "ES256"})
+    void concurrentlyIssuedTokensAllVerify(String algorithm) throws Exception {
+        JwtKeyRing keyRing = keyRing(algorithm);
+        JwtService jwtService = jwtService(keyRing, authorityRegistry());
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> tokens = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String subject = "user" + i;
+                tokens.add(executor.submit(() -> jwtService.generateToken(subject)));
+            }
+            for (int i = 0; i < tokens.size(); i++) {
+                Claims claims = Jwts.parserBuilder().setSigningKeyResolver(keyRing).build()
+                        .parseClaimsJws(tokens.get(i).get()).getBody();
+                assertThat(claims.getSubject()).isEqualTo("user" + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void repeatedTokenIsServedFromTheCacheWithoutReverifying() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService jwtService = new JwtService(keyRing("HS256"), authorityRegistry(), Clock.systemUTC(), EXPIRATION_MS, 100, meterRegistry);
+        String token = jwtService.generateToken("jane.doe");
+
+        Claims first = jwtService.extractAllClaims(token);
+        Claims second = jwtService.extractAllClaims(token);
+
+        assertThat(second).isNotNull().isSameAs(first);
+        assertThat(meterRegistry.get("auth.jwt.verify").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "jwtClaims", "result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedTokenIsDroppedOnceItExpires() {
+        MutableClock clock = MutableClock.at("2026-01-01T00:00:00Z");
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService jwtService = new JwtService(keyRing("HS256"), authorityRegistry(), clock, EXPIRATION_MS, 100, meterRegistry);
+        String token = jwtService.generateToken("jane.doe");
+        assertThat(jwtService.extractAllClaims(token)).isNotNull();
+
+        clock.advance(Duration.ofMillis(EXPIRATION_MS - 1_000));
+        assertThat(jwtService.extractAllClaims(token)).isNotNull(); // Still a hit just before exp
+        assertThat(meterRegistry.get("auth.jwt.verify").timer().count()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(2));
+        assertThat(jwtService.extractAllClaims(token)).isNull();
+        assertThat(jwtService.validateToken(token, new CustomUserDetails("id", "jane.doe", List.of()))).isFalse();
+        assertThat(meterRegistry.get("auth.jwt.verify").timer().count()).isGreaterThan(1); // Re-verified, not served from the cache
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"HS256", "ES256"})
+    void tokenDifferingOnlyInItsSignatureIsRejected(String algorithm) {
+        JwtService jwtService = jwtService(keyRing(algorithm), authorityRegistry());
+        String token = jwtService.generateToken("jane.doe");
+        assertThat(jwtService.extractAllClaims(token)).isNotNull(); // The genuine token is now cached
+
+        int index = token.lastIndexOf('.') + 10; // Inside the signature, away from the partial trailing character
+        char replacement = token.charAt(index) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, index) + replacement + token.substring(index + 1);
+
+        assertThat(jwtService.extractAllClaims(tampered)).isNull();
+        assertThat(jwtService.extractAllClaims(tampered)).isNull(); // Failures are not cached either
+        assertThat(jwtService.extractAllClaims(token)).isNotNull();
+    }
+
+    static JwtKeyRing keyRing(String algorithm) {
+        return new JwtKeyRing(algorithm, SECRET, "", "", "", new String[0], true, true); // Ephemeral key for ES256
+    }
+
+    static AuthorityRegistry authorityRegistry() {
+        return new AuthorityRegistry(mock(UserRoleRepository.class));
+    }
+
+    private static JwtService jwtService(JwtKeyRing keyRing, AuthorityRegistry authorityRegistry) {
+        return new JwtService(keyRing, authorityRegistry, Clock.systemUTC(), EXPIRATION_MS, 100, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,283 @@
+package com.eta.authservice.service;
+
+import com.eta.authservice.MutableClock;
+import com.eta.authservice.repository.RefreshTokenRepository;
+import com.eta.authservice.service.RefreshTokenStore.Rotation;
+import com.eta.authservice.service.RefreshTokenStore.RotationStatus;
+import com.eta.authservice.service.RefreshTokenStore.Session;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenStoreTest {
+
+    private static final String USER_ID = "0190f3a4-5b6c-7d8e-9f00-112233445566";
+    private static final String USERNAME = "jane.doe";
+    private static final Duration TTL = Duration.ofDays(7);
+
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private final MutableClock clock = MutableClock.at("2026-01-01T00:00:00Z");
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RefreshTokenStore(repository, clock, 1000, meterRegistry);
+        when(repository.insertSession(any(), any(), any(), any())).thenReturn(1);
+        when(repository.rotateSession(any(), any(), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    void rotateReplacesTheTokenWithinTheFamily() {
+        String first = store.create(USER_ID, USERNAME, clock.instant().plus(TTL));
+
+        Rotation rotation = store.rotate(first, clock.instant().plus(TTL));
+
+        assertThat(rotation.status()).isEqualTo(RotationStatus.ROTATED);
+        assertThat(rotation.rawToken()).isNotEqualTo(first).startsWith(first.substring(0, 23)); // Same "<familyId>."
+        assertThat(rotation.session().tokenHash()).isEqualTo(RefreshTokenStore.hash(rotation.rawToken()));
+        assertThat(rotation.session().username()).isEqualTo(USERNAME);
+        assertThat(store.rotate(rotation.rawToken(), clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.ROTATED);
+    }
+
+    @Test
+    void reusingARotatedOutTokenRevokesTheFamily() {
+        String first = store.create(USER_ID, USERNAME, clock.instant().plus(TTL));
+        String second = store.rotate(first, clock.instant().plus(TTL)).rawToken();
+
+        assertThat(store.rotate(first, clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.REUSED);
+        assertThat(store.rotate(second, clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID); // Whole family gone
+        assertThat(meterRegistry.get("auth.refresh_tokens.reuse_detected").counter().count()).isEqualTo(1);
+
+        store.flush();
+        verify(repository).deleteByFamilyId(first.substring(0, 22));
+    }
+
+    @Test
+    void reuseIsDetectedAgainstTheDatabaseOnceFlushed() {
+        String first = store.create(USER_ID, USERNAME, clock.instant().plus(TTL));
+        Rotation rotation = store.rotate(first, clock.instant().plus(TTL));
+        store.flush();
+        when(repository.findSessionByFamilyId(rotation.session().familyId())).thenReturn(Optional.of(view(rotation.session())));
+
+        assertThat(store.rotate(first, clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.REUSED);
+        assertThat(store.rotate(rotation.rawToken(), clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+    }
+
+    @Test
+    void expiredTokenIsRejectedAndItsFamilyRevoked() {
+        String token = store.create(USER_ID, USERNAME, clock.instant().plus(Duration.ofHours(1)));
+
+        clock.advance(Duration.ofHours(2));
+
+        assertThat(store.rotate(token, clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.EXPIRED);
+        assertThat(store.rotate(token, clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+    }
+
+    @Test
+    void evictExpiredDropsOnlyExpiredSessionsFromMemory() {
+        String shortLived = store.create(USER_ID, USERNAME, clock.instant().plus(Duration.ofMinutes(5)));
+        String longLived = store.create(USER_ID, USERNAME, clock.instant().plus(TTL));
+
+        clock.advance(Duration.ofMinutes(10));
+        store.evictExpired();
+        store.flush(); // Clears the pending writes, so the next lookup for an evicted family goes to the DB
+
+        assertThat(store.rotate(shortLived, clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+        verify(repository).findSessionByFamilyId(shortLived.substring(0, 22));
+        assertThat(store.rotate(longLived, clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.ROTATED);
+    }
+
+    @Test
+    void tokenMissingFromMemoryIsReadThroughFromTheDatabase() {
+        String familyId = "AAAAAAAAAAAAAAAAAAAAAA";
+        String token = familyId + ".secret-issued-by-another-instance";
+        RefreshTokenStore.Session persisted = new RefreshTokenStore.Session(familyId, RefreshTokenStore.hash(token),
+                USER_ID, USERNAME, clock.instant().plus(Duration.ofDays(1)));
+        when(repository.findSessionByFamilyId(familyId)).thenReturn(Optional.of(view(persisted)));
+
+        Rotation rotation = store.rotate(token, clock.instant().plus(TTL));
+
+        assertThat(rotation.status()).isEqualTo(RotationStatus.ROTATED);
+        assertThat(rotation.session().userId()).isEqualTo(USER_ID);
+        assertThat(lookups("miss")).isEqualTo(1);
+
+        assertThat(store.rotate(rotation.rawToken(), clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.ROTATED);
+        assertThat(lookups("hit")).isEqualTo(1); // Adopted into memory after the first read
+    }
+
+    @Test
+    void unknownAndMalformedTokensAreInvalid() {
+        assertThat(store.rotate("BBBBBBBBBBBBBBBBBBBBBB.unknown", clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+        assertThat(store.rotate("not-a-family-token", clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+        assertThat(store.rotate(null, clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+    }
+
+    @Test
+    void flushPersistsTheLatestStateOfEachFamily() {
+        String first = store.create(USER_ID, USERNAME, clock.instant().plus(TTL));
+        Rotation rotation = store.rotate(first, clock.instant().plus(TTL));
+
+        store.flush();
+
+        verify(repository).insertSession(rotation.session().familyId(), USER_ID, rotation.session().tokenHash(),
+                rotation.session().expiryDate()); // The first token's write was coalesced away
+        verify(repository, times(1)).insertSession(any(), any(), any(), any());
+    }
+
+    @Test
+    void coalescedRotationsCompareAgainstTheStoredHash() {
+        String first = store.create(USER_ID, USERNAME, clock.instant().plus(TTL));
+        store.flush();
+        Rotation second = store.rotate(first, clock.instant().plus(TTL));
+        Rotation third = store.rotate(second.rawToken(), clock.instant().plus(TTL));
+
+        store.flush();
+
+        verify(repository).rotateSession(third.session().familyId(), RefreshTokenStore.hash(first),
+                third.session().tokenHash(), third.session().expiryDate());
+        verify(repository, times(1)).rotateSession(any(), any(), any(), any());
+    }
+
+    @Test
+    void revocationOnOneInstanceHoldsOnAnother() {
+        RefreshTokenRepository table = sharedTable();
+        RefreshTokenStore first = new RefreshTokenStore(table, clock, 1000, meterRegistry);
+        RefreshTokenStore second = new RefreshTokenStore(table, clock, 1000, new SimpleMeterRegistry());
+        String token = first.create(USER_ID, USERNAME, clock.instant().plus(TTL));
+        first.flush();
+        second.warmUp(); // Both instances now hold the family in memory
+
+        assertThat(first.revokeFamilyOf(token, USER_ID)).isTrue();
+        first.flush();
+        Rotation stale = second.rotate(token, clock.instant().plus(TTL));
+        assertThat(stale.status()).isEqualTo(RotationStatus.ROTATED); // Answered from the stale copy, once
+        second.flush();
+
+        assertThat(table.findSessionByFamilyId(token.substring(0, 22))).isEmpty(); // Not re-created by the stale rotation
+        assertThat(second.rotate(stale.rawToken(), clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+        assertThat(first.rotate(stale.rawToken(), clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+    }
+
+    @Test
+    void sameTokenRotatedOnTwoInstancesRevokesTheFamily() {
+        RefreshTokenRepository table = sharedTable();
+        RefreshTokenStore first = new RefreshTokenStore(table, clock, 1000, meterRegistry);
+        MeterRegistry secondRegistry = new SimpleMeterRegistry();
+        RefreshTokenStore second = new RefreshTokenStore(table, clock, 1000, secondRegistry);
+        String token = first.create(USER_ID, USERNAME, clock.instant().plus(TTL));
+        first.flush();
+        second.warmUp();
+
+        Rotation onFirst = first.rotate(token, clock.instant().plus(TTL));
+        Rotation onSecond = second.rotate(token, clock.instant().plus(TTL)); // Within the write-behind window
+        first.flush();
+        second.flush(); // Its compare-and-set fails: the second holder of the token revokes the family
+        second.flush();
+
+        assertThat(secondRegistry.get("auth.refresh_tokens.reuse_detected").counter().count()).isEqualTo(1);
+        assertThat(table.findSessionByFamilyId(token.substring(0, 22))).isEmpty();
+        assertThat(second.rotate(onSecond.rawToken(), clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+
+        Rotation stale = first.rotate(onFirst.rawToken(), clock.instant().plus(TTL)); // The winner's copy is now stale too
+        first.flush();
+        assertThat(table.findSessionByFamilyId(token.substring(0, 22))).isEmpty();
+        assertThat(first.rotate(stale.rawToken(), clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("auth.refresh_tokens.lookups").tag("result", result).counter().count();
+    }
+
+    @Test
+    void logoutEverywhereRevokesEvictedUnflushedFamilies() {
+        RefreshTokenStore tiny = new RefreshTokenStore(repository, clock, 0, new SimpleMeterRegistry()); // Every family is evicted at once
+        String token = tiny.create(USER_ID, USERNAME, clock.instant().plus(TTL));
+
+        tiny.revokeAllForUser(USER_ID);
+
+        assertThat(tiny.rotate(token, clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+        tiny.flush();
+        verify(repository, never()).insertSession(any(), any(), any(), any());
+        verify(repository).deleteByUserId(USER_ID);
+    }
+
+    @Test
+    void logoutEverywhereWaitsForAnInFlightWrite() throws InterruptedException {
+        Map<String, Session> rows = new ConcurrentHashMap<>();
+        RefreshTokenRepository table = sharedTable(rows);
+        RefreshTokenStore tiny = new RefreshTokenStore(table, clock, 0, new SimpleMeterRegistry()); // Only the pending write holds the family
+        AtomicReference<Thread> logout = new AtomicReference<>();
+        doAnswer(call -> {
+            logout.set(Thread.startVirtualThread(() -> tiny.revokeAllForUser(USER_ID))); // Arrives while the insert is in flight
+            Thread.sleep(50);
+            Session row = new Session(call.getArgument(0), call.getArgument(2), call.getArgument(1), USERNAME, call.getArgument(3));
+            rows.put(row.familyId(), row);
+            return 1;
+        }).when(table).insertSession(any(), any(), any(), any());
+        String token = tiny.create(USER_ID, USERNAME, clock.instant().plus(TTL));
+
+        tiny.flush();
+        logout.get().join();
+
+        assertThat(rows).isEmpty(); // The delete ran after the insert, not before it
+        assertThat(tiny.rotate(token, clock.instant().plus(TTL)).status()).isEqualTo(RotationStatus.INVALID);
+    }
+
+    private RefreshTokenRepository sharedTable() {
+        return sharedTable(new ConcurrentHashMap<>());
+    }
+
+    // The tokens table shared by several instances, for one user
+    private RefreshTokenRepository sharedTable(Map<String, Session> rows) {
+        RefreshTokenRepository table = mock(RefreshTokenRepository.class);
+        when(table.insertSession(any(), any(), any(), any())).thenAnswer(call -> {
+            Session row = new Session(call.getArgument(0), call.getArgument(2), call.getArgument(1), USERNAME, call.getArgument(3));
+            return rows.putIfAbsent(row.familyId(), row) == null ? 1 : 0;
+        });
+        when(table.rotateSession(any(), any(), any(), any())).thenAnswer(call -> {
+            Session row = rows.get(call.<String>getArgument(0));
+            if (row == null || !row.tokenHash().equals(call.getArgument(1))) return 0;
+            rows.put(row.familyId(), new Session(row.familyId(), call.getArgument(2), row.userId(), row.username(), call.getArgument(3)));
+            return 1;
+        });
+        when(table.deleteByFamilyId(any())).thenAnswer(call -> rows.remove(call.<String>getArgument(0)) == null ? 0 : 1);
+        when(table.deleteByUserId(any())).thenAnswer(call -> {
+            int before = rows.size();
+            rows.values().removeIf(row -> row.userId().equals(call.getArgument(0)));
+            return before - rows.size();
+        });
+        when(table.findSessionByFamilyId(any())).thenAnswer(call ->
+                Optional.ofNullable(rows.get(call.<String>getArgument(0))).map(RefreshTokenStoreTest::view));
+        when(table.findActiveSessions(any(), any())).thenAnswer(call ->
+                rows.values().stream().filter(row -> !row.isExpired(clock.instant())).map(RefreshTokenStoreTest::view).toList());
+        return table;
+    }
+
+    private static RefreshTokenRepository.SessionView view(RefreshTokenStore.Session session) {
+        return new RefreshTokenRepository.SessionView() {
+            @Override public String getFamilyId() { return session.familyId(); }
+            @Override public String getTokenHash() { return session.tokenHash(); }
+            @Override public String getUserId() { return session.userId(); }
+            @Override public String getUsername() { return session.username(); }
+            @Override public Instant getExpiryDate() { return session.expiryDate(); }
+        };
+    }
+}
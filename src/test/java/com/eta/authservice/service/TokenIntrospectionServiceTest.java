@@ -0,0 +1,111 @@
+package com.eta.authservice.service;
+
+import com.eta.authservice.MutableClock;
+import com.eta.authservice.repository.UserRoleRepository;
+import com.eta.authservice.response.TokenIntrospectionDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenIntrospectionServiceTest {
+
+    private static final String SECRET = "test-secret-that-is-long-enough-for-hs256-signing";
+    private static final long EXPIRATION_MS = TimeUnit.MINUTES.toMillis(15);
+    private static final String USER_ID = "0190f3a4-5b6c-7d8e-9f00-112233445566";
+
+    private final MutableClock clock = MutableClock.at("2026-01-01T00:00:00Z");
+    private final UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+    private final TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+    private final AuthorityRegistry authorityRegistry = new AuthorityRegistry(mock(UserRoleRepository.class));
+    private JwtService jwtService;
+    private TokenIntrospectionService introspectionService;
+    private CustomUserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing("HS256", SECRET, "", "", "", new String[0], true, false);
+        jwtService = new JwtService(keyRing, authorityRegistry, clock, EXPIRATION_MS, 100, new SimpleMeterRegistry());
+        introspectionService = new TokenIntrospectionService(jwtService, userDetailsService, tokenRevocationService, clock);
+        user = new CustomUserDetails(USER_ID, "jane.doe", "hash", authorityRegistry.forRoleNames(List.of("ROLE_USER")));
+        when(userDetailsService.loadUserByUsername("jane.doe")).thenReturn(user);
+    }
+
+    @Test
+    void validTokenIsActiveWithItsSubjectRolesAndExpiry() {
+        String token = jwtService.generateToken(user);
+
+        TokenIntrospectionDto result = introspectionService.introspect(token);
+
+        long issuedAt = clock.millis() / 1000;
+        assertThat(result.isActive()).isTrue();
+        assertThat(result.getSub()).isEqualTo("jane.doe");
+        assertThat(result.getUid()).isEqualTo(USER_ID);
+        assertThat(result.getRoles()).containsExactly("ROLE_USER");
+        assertThat(result.getIat()).isEqualTo(issuedAt);
+        assertThat(result.getExp()).isEqualTo(issuedAt + TimeUnit.MILLISECONDS.toSeconds(EXPIRATION_MS));
+    }
+
+    @Test
+    void expiredTokenIsInactive() {
+        String token = jwtService.generateToken(user);
+        assertThat(introspectionService.introspect(token).isActive()).isTrue(); // Cached as valid first
+
+        clock.advance(Duration.ofMillis(EXPIRATION_MS).plusSeconds(1));
+
+        assertThat(introspectionService.introspect(token)).isEqualTo(TokenIntrospectionDto.builder().active(false).build());
+    }
+
+    @Test
+    void tamperedOrMalformedTokenIsInactive() {
+        String token = jwtService.generateToken(user);
+        int index = token.lastIndexOf('.') + 10;
+        String tampered = token.substring(0, index) + (token.charAt(index) == 'A' ? 'B' : 'A') + token.substring(index + 1);
+
+        assertThat(introspectionService.introspect(tampered).isActive()).isFalse();
+        assertThat(introspectionService.introspect("not.a.jwt").isActive()).isFalse();
+        assertThat(introspectionService.introspect("").isActive()).isFalse();
+    }
+
+    @Test
+    void revokedTokenIsInactive() {
+        String token = jwtService.generateToken(user);
+        when(tokenRevocationService.isRevoked(any())).thenReturn(true);
+
+        TokenIntrospectionDto result = introspectionService.introspect(token);
+
+        assertThat(result.isActive()).isFalse();
+        assertThat(result.getSub()).isNull(); // Nothing about the token is disclosed
+    }
+
+    @Test
+    void tokenOfADeletedUserIsInactive() {
+        String token = jwtService.generateToken("gone.user");
+        when(userDetailsService.loadUserByUsername("gone.user")).thenThrow(new UsernameNotFoundException("User not found!"));
+
+        assertThat(introspectionService.introspect(token).isActive()).isFalse();
+    }
+
+    @Test
+    void batchIsAnsweredInOrderAndCacheableUntilTheFirstActiveTokenExpires() {
+        String early = jwtService.generateToken(user);
+        clock.advance(Duration.ofMinutes(5));
+        String late = jwtService.generateToken(user);
+
+        List<TokenIntrospectionDto> results = introspectionService.introspect(List.of(late, "garbage", early));
+
+        assertThat(results).extracting(TokenIntrospectionDto::isActive).containsExactly(true, false, true);
+        assertThat(introspectionService.cacheableForSeconds(results, 3600)).isEqualTo(Duration.ofMinutes(10).toSeconds());
+        assertThat(introspectionService.cacheableForSeconds(results, 60)).isEqualTo(60);
+        assertThat(introspectionService.cacheableForSeconds(List.of(results.get(1)), 300)).isEqualTo(300);
+    }
+}
@@ -0,0 +1,151 @@
+package com.eta.authservice.service;
+
+import com.eta.authservice.MutableClock;
+import com.eta.authservice.entities.RevokedToken;
+import com.eta.authservice.entities.UserTokenCutoff;
+import com.eta.authservice.repository.RevokedTokenRepository;
+import com.eta.authservice.repository.UserTokenCutoffRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private static final long EXPIRATION_MS = TimeUnit.MINUTES.toMillis(15);
+    private static final String USER_ID = "0190f3a4-5b6c-7d8e-9f00-112233445566";
+
+    private final MutableClock clock = MutableClock.at("2026-01-01T00:00:00Z");
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+    private final UserTokenCutoffRepository userTokenCutoffRepository = mock(UserTokenCutoffRepository.class);
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(revokedTokenRepository, userTokenCutoffRepository, clock,
+                EXPIRATION_MS, 1000, 0.001, new SimpleMeterRegistry());
+        revocationService.rebuild();
+    }
+
+    @Test
+    void revokedTokenIdIsRejectedAndOthersAreNot() {
+        Claims revoked = claims("jti-1", USER_ID, "jane.doe");
+        Claims other = claims("jti-2", USER_ID, "jane.doe");
+
+        revocationService.revoke(revoked);
+
+        assertThat(revocationService.isRevoked(revoked)).isTrue();
+        assertThat(revocationService.isRevoked(other)).isFalse(); // A filter false positive is settled by the (empty) table
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(saved.capture());
+        assertThat(saved.getValue().getRevokedAt()).isEqualTo(clock.instant());
+    }
+
+    @Test
+    void refreshOnlyReadsRevocationsSinceThePreviousRead() {
+        Instant firstLoad = clock.instant();
+        clock.advance(Duration.ofSeconds(10));
+        when(revokedTokenRepository.findActiveJtisRevokedSince(any(), any())).thenReturn(List.of("jti-elsewhere"));
+        when(revokedTokenRepository.existsById("jti-elsewhere")).thenReturn(true);
+
+        revocationService.refresh();
+
+        verify(revokedTokenRepository).findActiveJtisRevokedSince(firstLoad.minusSeconds(30), clock.instant());
+        verify(revokedTokenRepository, times(1)).findActiveJtis(any()); // Only the rebuild in setUp
+        assertThat(revocationService.isRevoked(claims("jti-elsewhere", USER_ID, "jane.doe"))).isTrue();
+
+        Instant secondLoad = clock.instant();
+        clock.advance(Duration.ofSeconds(10));
+        revocationService.refresh();
+        verify(revokedTokenRepository).findActiveJtisRevokedSince(secondLoad.minusSeconds(30), clock.instant());
+    }
+
+    @Test
+    void purgeRebuildsTheFilterWithoutExpiredIds() {
+        when(revokedTokenRepository.findActiveJtis(any())).thenReturn(List.of("jti-live"));
+
+        revocationService.purgeExpired();
+
+        verify(revokedTokenRepository).deleteExpired(clock.instant());
+        verify(revokedTokenRepository, times(2)).findActiveJtis(any());
+        when(revokedTokenRepository.existsById("jti-live")).thenReturn(true);
+        assertThat(revocationService.isRevoked(claims("jti-live", USER_ID, "jane.doe"))).isTrue();
+    }
+
+    @Test
+    void logoutEverywhereRejectsTokensIssuedBeforeIt() {
+        Claims before = claims("jti-1", USER_ID, "jane.doe");
+        clock.advance(Duration.ofSeconds(5));
+
+        revocationService.revokeAllForUser(USER_ID, "jane.doe");
+        clock.advance(Duration.ofSeconds(1));
+        Claims after = claims("jti-2", USER_ID, "jane.doe");
+
+        assertThat(revocationService.isRevoked(before)).isTrue();
+        assertThat(revocationService.isRevoked(after)).isFalse();
+        assertThat(revocationService.isRevoked(claims("jti-3", "another-user-id", "john.doe"))).isFalse();
+        verify(userTokenCutoffRepository).save(any(UserTokenCutoff.class));
+    }
+
+    @Test
+    void logoutEverywhereRequiresAUserId() {
+        assertThatThrownBy(() -> revocationService.revokeAllForUser(null, "jane.doe")).isInstanceOf(IllegalArgumentException.class);
+        verify(userTokenCutoffRepository, never()).save(any());
+    }
+
+    @Test
+    void legacyTokenWithoutUidFallsBackToTheSubject() {
+        Claims legacy = claims(null, null, "Jane.Doe");
+        clock.advance(Duration.ofSeconds(5));
+
+        revocationService.revokeAllForUser(USER_ID, "jane.doe");
+
+        assertThat(revocationService.isRevoked(legacy)).isTrue(); // Usernames compare case-insensitively
+        assertThat(revocationService.isRevoked(claims(null, null, "john.doe"))).isFalse();
+    }
+
+    @Test
+    void cutoffsSetOnAnotherInstanceArriveWithTheIncrementalRefresh() {
+        Claims token = claims("jti-1", USER_ID, "jane.doe");
+        Claims legacy = claims(null, null, "jane.doe");
+        clock.advance(Duration.ofSeconds(5));
+        Instant notBefore = clock.instant();
+        when(userTokenCutoffRepository.findActiveSetSince(any(), any())).thenReturn(List.of(UserTokenCutoff.builder()
+                .userId(USER_ID).username("jane.doe").notBefore(notBefore).expiresAt(notBefore.plusMillis(EXPIRATION_MS)).build()));
+        assertThat(revocationService.isRevoked(token)).isFalse();
+
+        revocationService.refresh();
+
+        assertThat(revocationService.isRevoked(token)).isTrue();
+        assertThat(revocationService.isRevoked(legacy)).isTrue();
+        verify(userTokenCutoffRepository, never()).save(any());
+    }
+
+    private Claims claims(String jti, String userId, String subject) {
+        Instant issuedAt = clock.instant();
+        Claims claims = Jwts.claims()
+                .setId(jti)
+                .setSubject(subject)
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(issuedAt.plusMillis(EXPIRATION_MS)));
+        if (userId != null) claims.put(JwtService.USER_ID_CLAIM, userId);
+        return claims;
+    }
+}
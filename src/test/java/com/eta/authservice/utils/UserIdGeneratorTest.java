@@ -0,0 +1,50 @@
+package com.eta.authservice.utils;
+
+import com.eta.authservice.entities.UuidBinaryConverter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserIdGeneratorTest {
+
+    private final UuidBinaryConverter converter = new UuidBinaryConverter();
+
+    @Test
+    void idsAreVersion7WithTheCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UUID.fromString(UserIdGenerator.newUserId());
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2); // RFC 9562
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after);
+    }
+
+    @Test
+    void idsSortByCreationTimeAsTextAndAsBinary16() {
+        long millis = 1_767_225_600_000L; // 2026-01-01T00:00:00Z
+        for (int i = 0; i < 1000; i++) {
+            String earlier = UserIdGenerator.newUuid(millis + i).toString();
+            String later = UserIdGenerator.newUuid(millis + i + 1).toString();
+
+            assertThat(earlier).isLessThan(later);
+            assertThat(Arrays.compareUnsigned(converter.convertToDatabaseColumn(earlier), converter.convertToDatabaseColumn(later)))
+                    .as("BINARY(16) order, as InnoDB compares it").isNegative();
+        }
+    }
+
+    @Test
+    void idsWithinOneMillisecondAreDistinct() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UserIdGenerator.newUuid(1_767_225_600_000L).toString());
+        }
+
+        assertThat(ids).hasSize(10_000);
+    }
+}
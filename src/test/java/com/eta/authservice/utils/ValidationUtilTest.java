@@ -0,0 +1,153 @@
+package com.eta.authservice.utils;
+
+import com.eta.authservice.model.UserInfoDto;
+import com.eta.authservice.utils.ValidationUtil.UserValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ValidationUtilTest {
+
+    private static final String VALID_USERNAME = "jane.doe";
+    private static final String VALID_PASSWORD = "Str0ng!Pass";
+
+    private static final String USERNAME_EMPTY = "Username cannot be empty";
+    private static final String USERNAME_LENGTH = "Username must be between 3 and 30 characters";
+    private static final String USERNAME_EMAIL = "Username must be a valid email address";
+    private static final String USERNAME_CHARACTERS = "Username can only contain letters, numbers, underscores, dots, and hyphens";
+    private static final String USERNAME_BLACKLISTED = "This username is not allowed";
+    private static final String PASSWORD_EMPTY = "Password cannot be empty";
+    private static final String PASSWORD_TOO_SHORT = "Password must be at least 8 characters long";
+    private static final String PASSWORD_TOO_LONG = "Password cannot exceed 128 characters";
+    private static final String PASSWORD_CLASSES = "Password must include uppercase, lowercase, number, and special character";
+    private static final String PASSWORD_CONTAINS_USERNAME = "Password cannot contain username";
+
+    @ParameterizedTest
+    @ValueSource(strings = {"abc", "jane.doe", "jane_doe-99", "J.D", "abcdefghijklmnopqrstuvwxyz1234", "jane@example.com",
+            "  padded  "})
+    void validUsernamesPass(String username) {
+        assertThat(ValidationUtil.findViolations(user(username, VALID_PASSWORD))).isEmpty();
+    }
+
+    static Stream<Arguments> invalidUsernames() {
+        return Stream.of(
+                Arguments.of("ab", USERNAME_LENGTH),
+                Arguments.of("abcdefghijklmnopqrstuvwxyz12345", USERNAME_LENGTH), // 31
+                Arguments.of("jane doe", USERNAME_CHARACTERS),
+                Arguments.of("jane!", USERNAME_CHARACTERS),
+                Arguments.of("jöhn", USERNAME_CHARACTERS),
+                Arguments.of("jane@example", USERNAME_EMAIL),
+                Arguments.of("@example.com", USERNAME_EMAIL),
+                Arguments.of("jane@example.c", USERNAME_EMAIL));
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidUsernames")
+    void invalidUsernamesAreRejected(String username, String expected) {
+        assertThat(ValidationUtil.findViolations(user(username, VALID_PASSWORD))).containsExactly(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"admin", "ADMIN", "Root", "user", "system", "guest", "superuser", " admin "})
+    void blacklistedUsernamesAreRejectedIgnoringCase(String username) {
+        assertThat(ValidationUtil.findViolations(user(username, "Other-Pass1"))).containsExactly(USERNAME_BLACKLISTED);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"   "})
+    void missingUsernameIsReported(String username) {
+        assertThat(ValidationUtil.findViolations(user(username, VALID_PASSWORD))).containsExactly(USERNAME_EMPTY);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Aa1!aaaa", "Str0ng!Pass", "p@SSw0rd{}", "Aa1~ with spaces"})
+    void validPasswordsPass(String password) {
+        assertThat(ValidationUtil.findViolations(user(VALID_USERNAME, password))).isEmpty();
+    }
+
+    static Stream<Arguments> passwordLengths() {
+        return Stream.of(
+                Arguments.of("Aa1!aaa", PASSWORD_TOO_SHORT), // 7
+                Arguments.of("Aa1!" + "a".repeat(125), PASSWORD_TOO_LONG)); // 129
+    }
+
+    @ParameterizedTest
+    @MethodSource("passwordLengths")
+    void passwordLengthIsBounded(String password, String expected) {
+        assertThat(ValidationUtil.findViolations(user(VALID_USERNAME, password))).containsExactly(expected);
+    }
+
+    @Test
+    void passwordLengthBoundsAreInclusive() {
+        assertThat(ValidationUtil.findViolations(user(VALID_USERNAME, "Aa1!aaaa"))).isEmpty(); // 8
+        assertThat(ValidationUtil.findViolations(user(VALID_USERNAME, "Aa1!" + "a".repeat(124)))).isEmpty(); // 128
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "nouppercase1!", // Missing upper case
+            "NOLOWERCASE1!", // Missing lower case
+            "NoDigitsHere!", // Missing digit
+            "NoSpecial123", // Missing punctuation
+            "Unicode1§Only", // § is not ASCII punctuation
+            "Line1!\nbreak", // Line terminators are never accepted
+            "Line1!\u2028break",
+    })
+    void passwordsMissingACharacterClassAreRejected(String password) {
+        assertThat(ValidationUtil.findViolations(user(VALID_USERNAME, password))).containsExactly(PASSWORD_CLASSES);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jane.doe!A1", "xJANE.DOE1!", "1!aJane.Doe"})
+    void passwordContainingTheUsernameIsRejectedIgnoringCase(String password) {
+        assertThat(ValidationUtil.findViolations(user(VALID_USERNAME, password))).containsExactly(PASSWORD_CONTAINS_USERNAME);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    void missingPasswordIsReported(String password) {
+        assertThat(ValidationUtil.findViolations(user(VALID_USERNAME, password))).containsExactly(PASSWORD_EMPTY);
+    }
+
+    @Test
+    void everyViolationIsReportedInRuleOrder() {
+        assertThat(ValidationUtil.findViolations(user("a!", "a!"))).containsExactly(
+                USERNAME_LENGTH, USERNAME_CHARACTERS, PASSWORD_TOO_SHORT, PASSWORD_CLASSES, PASSWORD_CONTAINS_USERNAME);
+        assertThat(ValidationUtil.findViolations(user("", ""))).containsExactly(USERNAME_EMPTY, PASSWORD_EMPTY);
+        assertThat(ValidationUtil.findViolations(user("root", "short"))).containsExactly(
+                USERNAME_BLACKLISTED, PASSWORD_TOO_SHORT, PASSWORD_CLASSES);
+    }
+
+    @Test
+    void nullUserIsReported() {
+        assertThat(ValidationUtil.findViolations(null)).containsExactly("User info cannot be null");
+    }
+
+    @Test
+    void validateUserAttributesThrowsWithAllViolations() {
+        assertThatNoException().isThrownBy(() -> ValidationUtil.validateUserAttributes(user(VALID_USERNAME, VALID_PASSWORD)));
+
+        assertThatThrownBy(() -> ValidationUtil.validateUserAttributes(user("admin", "weak")))
+                .isInstanceOfSatisfying(UserValidationException.class, exception -> {
+                    assertThat(exception.getViolations()).containsExactly(USERNAME_BLACKLISTED, PASSWORD_TOO_SHORT, PASSWORD_CLASSES);
+                    assertThat(exception.getMessage()).isEqualTo(String.join("; ", exception.getViolations()));
+                });
+    }
+
+    private static UserInfoDto user(String username, String password) {
+        UserInfoDto userInfoDto = new UserInfoDto();
+        userInfoDto.setUsername(username);
+        userInfoDto.setPassword(password);
+        return userInfoDto;
+    }
+}